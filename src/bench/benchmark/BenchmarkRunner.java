@@ -0,0 +1,33 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+// Represents the entry point that runs the benchmarks and stores the results as JSON under ./data/bench, one file per
+// day, so numbers can be compared across releases
+public class BenchmarkRunner {
+    private static final String RESULTS_DIRECTORY = "./data/bench";
+
+    /**
+     * @EFFECTS: runs every benchmark whose name matches the first argument, or all of them if there is none
+     */
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : "benchmark\\..*Benchmark";
+        Files.createDirectories(Paths.get(RESULTS_DIRECTORY));
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS_DIRECTORY + "/results-" + LocalDate.now() + ".json")
+                .shouldFailOnError(true)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import model.security.ByteConvertor;
+import model.security.Decryptor;
+import model.security.Encryptor;
+import model.security.Keyset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+// Represents benchmarks for the field-level path used by Entry: Encryptor/Decryptor plus the Base64 ByteConvertor
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CipherRoundTripBenchmark {
+    @Param({"16", "256", "4096"})
+    private int fieldLength;
+
+    private Encryptor encryptor;
+    private Decryptor decryptor;
+    private Keyset keyset;
+    private byte[] salt;
+    private String field;
+    private String encryptedField;
+    private byte[] rawBytes;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        encryptor = Encryptor.getInstance();
+        decryptor = Decryptor.getInstance();
+        keyset = new Keyset(SyntheticVaults.MASTER_PASSWORD, "SHA-256");
+        salt = encryptor.createSalt();
+        field = "f".repeat(fieldLength);
+        encryptedField = encryptor.encrypt(field, keyset, salt);
+        rawBytes = ByteConvertor.stringToBytes(encryptedField);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptor.encrypt(field, keyset, salt);
+    }
+
+    @Benchmark
+    public String decrypt() throws GeneralSecurityException {
+        return decryptor.decrypt(encryptedField, salt, keyset);
+    }
+
+    @Benchmark
+    public String roundTrip() throws GeneralSecurityException {
+        return decryptor.decrypt(encryptor.encrypt(field, keyset, salt), salt, keyset);
+    }
+
+    @Benchmark
+    public byte[] byteConvertorRoundTrip() {
+        return ByteConvertor.stringToBytes(ByteConvertor.bytesToString(rawBytes));
+    }
+
+    @Benchmark
+    public byte[] createSalt() {
+        return encryptor.createSalt();
+    }
+}
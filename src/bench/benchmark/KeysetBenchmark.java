@@ -0,0 +1,51 @@
+package benchmark;
+
+import model.security.Keyset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+// Represents benchmarks for deriving a Keyset from a master password and for raw AEAD encryption and decryption
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeysetBenchmark {
+    @Param({"16", "256", "4096"})
+    private int plainTextLength;
+
+    private Keyset keyset;
+    private String plainText;
+    private byte[] salt;
+    private byte[] cipherBytes;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        keyset = new Keyset(SyntheticVaults.MASTER_PASSWORD, "SHA-256");
+        plainText = "x".repeat(plainTextLength);
+        salt = new byte[16];
+        cipherBytes = keyset.encrypt(plainText, salt);
+    }
+
+    @Benchmark
+    public Keyset construct() throws GeneralSecurityException {
+        return new Keyset(SyntheticVaults.MASTER_PASSWORD, "SHA-256");
+    }
+
+    @Benchmark
+    public byte[] encrypt() {
+        return keyset.encrypt(plainText, salt);
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws GeneralSecurityException {
+        return keyset.decrypt(cipherBytes, salt);
+    }
+}
@@ -0,0 +1,26 @@
+package benchmark;
+
+import model.entries.Password;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Represents benchmarks for constructing a Password, which runs the full nbvcxz strength estimate
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PasswordBenchmark {
+    @Param({"password", "correct-horse-battery-staple", "daf4u32508unv84b234072bd872eb0cf7w0f78b08e7r1240r7kd08k2"})
+    private String passwordText;
+
+    @Benchmark
+    public Password construct() {
+        return new Password(passwordText);
+    }
+}
@@ -0,0 +1,43 @@
+package benchmark;
+
+import model.entries.PasswordGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Represents benchmarks for generating random passwords and passphrases
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PasswordGeneratorBenchmark {
+    @Param({"12", "24", "64"})
+    private int length;
+
+    private PasswordGenerator generator;
+    private ArrayList<Boolean> allTypes;
+
+    @Setup
+    public void setUp() {
+        generator = PasswordGenerator.getInstance();
+        allTypes = new ArrayList<>(Arrays.asList(true, true, true, true));
+    }
+
+    @Benchmark
+    public String generatePassword() {
+        return generator.generatePassword(allTypes, length);
+    }
+
+    @Benchmark
+    public String generatePassphrase() {
+        return PasswordGenerator.generatePassphrase("-", length / 4);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import model.entries.File;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+// Represents benchmarks for saving and loading whole vaults. Each operation handles every entry in the vault, so they
+// are measured as single shots rather than averaged over many calls.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int entries;
+
+    private File vault;
+    private Path store;
+
+    @Setup
+    public void setUp() throws IOException {
+        vault = SyntheticVaults.create(entries);
+        store = Files.createTempFile("vault", ".json");
+        write();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(store);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(vault, SyntheticVaults.MASTER_PASSWORD);
+        writer.close();
+    }
+
+    @Benchmark
+    public File read() throws IOException, GeneralSecurityException {
+        return new JsonReader(store.toString()).read(SyntheticVaults.MASTER_PASSWORD, store.toString());
+    }
+}
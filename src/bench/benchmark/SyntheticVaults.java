@@ -0,0 +1,21 @@
+package benchmark;
+
+import model.entries.File;
+import model.entries.VaultGenerator;
+
+// Represents a factory for the synthetic vaults used by the benchmarks
+final class SyntheticVaults {
+    static final String MASTER_PASSWORD = "benchmark-master-password";
+    private static final long SEED = 210;
+
+    private SyntheticVaults() {
+    }
+
+    /**
+     * @REQUIRES: size >= 0
+     * @EFFECTS: returns a file with size generated entries
+     */
+    static File create(int size) {
+        return new VaultGenerator(20, 64, SEED).generateFile(size);
+    }
+}
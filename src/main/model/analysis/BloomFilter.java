@@ -0,0 +1,104 @@
+package model.analysis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// Represents a Bloom filter over cryptographic hashes. A lookup that answers false is certain, while true only means
+// the hash may have been added. Because the keys are already uniformly distributed digests, the bit positions are
+// derived from the first 16 bytes of the key by double hashing instead of hashing the key again.
+public class BloomFilter {
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @REQUIRES: expectedKeys >= 0, 0 < falsePositiveRate < 1
+     * @EFFECTS: creates an empty filter sized to hold expectedKeys keys with about the given false positive rate
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        this(optimalBits(expectedKeys, falsePositiveRate),
+                optimalHashes(expectedKeys, optimalBits(expectedKeys, falsePositiveRate)));
+    }
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.bits = new long[(int) ((bitCount + 63) / 64)];
+        this.bitCount = (long) bits.length * 64;
+        this.hashCount = hashCount;
+    }
+
+    private static long optimalBits(long keys, double rate) {
+        long wanted = (long) Math.ceil(-Math.max(1, keys) * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        return Math.min(Math.max(64, wanted), (long) Integer.MAX_VALUE * 64);
+    }
+
+    private static int optimalHashes(long keys, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / Math.max(1, keys) * Math.log(2)));
+    }
+
+    /**
+     * @REQUIRES: key has at least 16 bytes
+     * @MODIFIES: this
+     * @EFFECTS: adds key to the filter
+     */
+    public void add(byte[] key) {
+        long h1 = word(key, 0);
+        long h2 = word(key, 8);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @REQUIRES: key has at least 16 bytes
+     * @EFFECTS: returns false if key was certainly never added, true if it may have been
+     */
+    public boolean mightContain(byte[] key) {
+        long h1 = word(key, 0);
+        long h2 = word(key, 8);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long word(byte[] key, int offset) {
+        long word = 0;
+        for (int i = 0; i < 8; i++) {
+            word = (word << 8) | (key[offset + i] & 0xff);
+        }
+        return word;
+    }
+
+    /**
+     * @EFFECTS: writes the filter to out so that read can restore it
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(hashCount);
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the filter written to in by write; throws IOException if what was read is not such a filter or
+     * would be more than maxWords words long, so a damaged file cannot ask for an arbitrarily large array
+     */
+    public static BloomFilter read(DataInputStream in, long maxWords) throws IOException {
+        int hashCount = in.readInt();
+        int words = in.readInt();
+        if (hashCount <= 0 || words <= 0 || words > maxWords) {
+            throw new IOException("Not a saved Bloom filter");
+        }
+        BloomFilter filter = new BloomFilter((long) words * 64, hashCount);
+        for (int i = 0; i < words; i++) {
+            filter.bits[i] = in.readLong();
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,102 @@
+package model.analysis;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import model.entries.ProgressListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Represents a health check of every entry in a file. The entries are split into ranges that are scored in parallel
+// on a fork-join pool; each finding is stored at the entry's own index, so the report comes out in file order no
+// matter which thread finished first. Progress is reported as each range is done. Scores come from the strength
+// summaries loaded with the vault, so nbvcxz only runs for entries whose summary is missing or out of date.
+public class HealthCheck {
+    public static final int WEAK_SCORE = 1;
+    public static final int SHORT_LENGTH = 12;
+    public static final double LOW_ENTROPY_BITS = 40;
+    public static final int DEFAULT_WORST_COUNT = 10;
+    private static final int RANGE_SIZE = 64;
+
+    private final ForkJoinPool pool;
+    private final ReuseAnalyzer reuse;
+    private final int worstCount;
+
+    /**
+     * @REQUIRES: worstCount >= 0
+     * @EFFECTS: creates a check that runs on pool, takes reuse from the given analyzer and lists up to worstCount of
+     * the worst entries
+     */
+    public HealthCheck(ForkJoinPool pool, ReuseAnalyzer reuse, int worstCount) {
+        this.pool = pool;
+        this.reuse = reuse;
+        this.worstCount = worstCount;
+    }
+
+    /**
+     * @EFFECTS: creates a check that runs on the common pool and lists DEFAULT_WORST_COUNT of the worst entries
+     */
+    public HealthCheck(ReuseAnalyzer reuse) {
+        this(ForkJoinPool.commonPool(), reuse, DEFAULT_WORST_COUNT);
+    }
+
+    /**
+     * @EFFECTS: returns the health report of the entries file holds right now; listener is told how many entries
+     * have been checked after each range
+     */
+    public HealthReport run(File file, ProgressListener listener) {
+        List<Entry> entries = file.snapshot();
+        HealthReport.Finding[] findings = new HealthReport.Finding[entries.size()];
+        pool.invoke(new Range(entries, findings, 0, entries.size(), new AtomicInteger(), listener));
+        return new HealthReport(Arrays.asList(findings), worstCount);
+    }
+
+    /**
+     * @EFFECTS: returns the finding for entry, the index-th entry of its file
+     */
+    private HealthReport.Finding check(int index, Entry entry) {
+        Password password = entry.getPassword();
+        return new HealthReport.Finding(index, entry, password.findScore(), password.getEntropy(),
+                entry.getPasswordText().length(), reuse.countOthersSharing(entry));
+    }
+
+    // Represents the checking of the entries in [from, to), split in half until the range is small enough. Tasks are
+    // never serialized, so no serialVersionUID is kept
+    @SuppressWarnings("serial")
+    private class Range extends RecursiveAction {
+        private final List<Entry> entries;
+        private final HealthReport.Finding[] findings;
+        private final int from;
+        private final int to;
+        private final AtomicInteger done;
+        private final ProgressListener listener;
+
+        Range(List<Entry> entries, HealthReport.Finding[] findings, int from, int to, AtomicInteger done,
+              ProgressListener listener) {
+            this.entries = entries;
+            this.findings = findings;
+            this.from = from;
+            this.to = to;
+            this.done = done;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > RANGE_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Range(entries, findings, from, middle, done, listener),
+                        new Range(entries, findings, middle, to, done, listener));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                findings[i] = check(i, entries.get(i));
+            }
+            listener.onProgress(done.addAndGet(to - from), entries.size());
+        }
+    }
+}
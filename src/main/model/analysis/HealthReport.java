@@ -0,0 +1,166 @@
+package model.analysis;
+
+import model.entries.Entry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Represents the health of every entry in a vault: how many entries fall in each nbvcxz score bucket, how many have a
+// password that is short, low in entropy or shared with other entries, and the worst entries ordered from the weakest
+// password up. Findings are kept in file order, so the same vault always produces the same report.
+public class HealthReport {
+    public static final int MAX_SCORE = 4;
+
+    private final List<Finding> findings;
+    private final int[] scoreCounts;
+    private final int worstCount;
+
+    // Represents what the health check found about one entry
+    public static class Finding {
+        private final int index;
+        private final Entry entry;
+        private final int score;
+        private final double entropy;
+        private final int length;
+        private final int sharedWith;
+
+        /**
+         * @EFFECTS: creates the finding for the entry at index of the file
+         */
+        public Finding(int index, Entry entry, int score, double entropy, int length, int sharedWith) {
+            this.index = index;
+            this.entry = entry;
+            this.score = score;
+            this.entropy = entropy;
+            this.length = length;
+            this.sharedWith = sharedWith;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public double getEntropy() {
+            return entropy;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getSharedWith() {
+            return sharedWith;
+        }
+
+        /**
+         * @EFFECTS: returns the nbvcxz warning about the entry's password, or null if there is none; the password is
+         * estimated again the first time this is asked
+         */
+        public String getWarning() {
+            return entry.getPassword().getFeedback().getWarning();
+        }
+
+        public boolean isWeak() {
+            return score <= HealthCheck.WEAK_SCORE;
+        }
+
+        public boolean isShort() {
+            return length < HealthCheck.SHORT_LENGTH;
+        }
+
+        public boolean isLowEntropy() {
+            return entropy < HealthCheck.LOW_ENTROPY_BITS;
+        }
+
+        public boolean isReused() {
+            return sharedWith > 0;
+        }
+    }
+
+    /**
+     * @REQUIRES: findings are in file order; worstCount >= 0
+     * @EFFECTS: creates a report over findings that lists up to worstCount of the worst entries
+     */
+    public HealthReport(List<Finding> findings, int worstCount) {
+        this.findings = Collections.unmodifiableList(findings);
+        this.worstCount = worstCount;
+        this.scoreCounts = new int[MAX_SCORE + 1];
+        for (Finding finding : findings) {
+            scoreCounts[Math.max(0, Math.min(MAX_SCORE, finding.getScore()))]++;
+        }
+    }
+
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    /**
+     * @REQUIRES: 0 <= score <= MAX_SCORE
+     * @EFFECTS: returns how many entries have the given score
+     */
+    public int getScoreCount(int score) {
+        return scoreCounts[score];
+    }
+
+    public int getWeakCount() {
+        return (int) findings.stream().filter(Finding::isWeak).count();
+    }
+
+    public int getShortCount() {
+        return (int) findings.stream().filter(Finding::isShort).count();
+    }
+
+    public int getLowEntropyCount() {
+        return (int) findings.stream().filter(Finding::isLowEntropy).count();
+    }
+
+    public int getReusedCount() {
+        return (int) findings.stream().filter(Finding::isReused).count();
+    }
+
+    /**
+     * @EFFECTS: returns up to worstCount findings ordered by score, then entropy, then file order, leaving out
+     * entries with no problem at all
+     */
+    public List<Finding> getWorst() {
+        List<Finding> worst = new ArrayList<>();
+        for (Finding finding : findings) {
+            if (finding.isWeak() || finding.isShort() || finding.isLowEntropy() || finding.isReused()) {
+                worst.add(finding);
+            }
+        }
+        worst.sort(Comparator.comparingInt(Finding::getScore).thenComparingDouble(Finding::getEntropy)
+                .thenComparingInt(Finding::getIndex));
+        return worst.subList(0, Math.min(worstCount, worst.size()));
+    }
+
+    /**
+     * @EFFECTS: returns the report as human-readable text
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder("Health of " + findings.size() + " entries\n");
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            sb.append(String.format("Rating %-5s %d%n", "*".repeat(score + 1), scoreCounts[score]));
+        }
+        sb.append(String.format("Weak: %d, short: %d, low entropy: %d, reused: %d%n", getWeakCount(),
+                getShortCount(), getLowEntropyCount(), getReusedCount()));
+        for (Finding finding : getWorst()) {
+            sb.append(String.format("Entry #%d %s: rating %s, %.0f bits, %d characters%s%s%n",
+                    finding.getIndex() + 1, finding.getEntry().getName(), "*".repeat(finding.getScore() + 1),
+                    finding.getEntropy(), finding.getLength(),
+                    finding.isReused() ? ", shared with " + finding.getSharedWith() + " other entries" : "",
+                    finding.getWarning() == null ? "" : " (" + finding.getWarning() + ")"));
+        }
+        return sb.toString();
+    }
+}
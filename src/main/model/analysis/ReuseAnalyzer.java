@@ -0,0 +1,136 @@
+package model.analysis;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.FileListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Represents a detector of passwords that are used by more than one entry of a file. Every password is fingerprinted
+// with HMAC-SHA256 under a random key that only lives in memory, and entries are grouped by fingerprint in a hash map,
+// so finding every reused password takes one hash per entry instead of comparing each pair of entries. The analyzer
+// listens to the file and updates its groups as entries are added, removed or loaded.
+public class ReuseAnalyzer implements FileListener {
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> macs;
+    private final Map<ByteBuffer, Set<Entry>> clusters;
+
+    /**
+     * @MODIFIES: file
+     * @EFFECTS: creates an analyzer holding the entries of file and keeps it up to date with the file from now on
+     */
+    public ReuseAnalyzer(File file) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec spec = new SecretKeySpec(key, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> newMac(spec));
+        clusters = new HashMap<>();
+        // lock the file so that no entry is added between taking the snapshot and registering as a listener
+        synchronized (file) {
+            file.snapshot().forEach(this::entryAdded);
+            file.addListener(this);
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec spec) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(spec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the keyed fingerprint of password
+     */
+    private ByteBuffer fingerprint(String password) {
+        return ByteBuffer.wrap(macs.get().doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void entriesChanged() {
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: adds entry to the group of entries sharing its password
+     */
+    @Override
+    public void entryAdded(Entry entry) {
+        ByteBuffer key = fingerprint(entry.getPasswordText());
+        synchronized (this) {
+            clusters.computeIfAbsent(key, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(entry);
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: removes entry from the group of entries sharing its password
+     */
+    @Override
+    public void entryRemoved(Entry entry) {
+        ByteBuffer key = fingerprint(entry.getPasswordText());
+        synchronized (this) {
+            Set<Entry> cluster = clusters.get(key);
+            if (cluster != null && cluster.remove(entry) && cluster.isEmpty()) {
+                clusters.remove(key);
+            }
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: forgets every entry
+     */
+    @Override
+    public synchronized void entriesCleared() {
+        clusters.clear();
+    }
+
+    /**
+     * @EFFECTS: returns every group of two or more entries that share a password, largest group first; the entries
+     * of a group are sorted by name
+     */
+    public synchronized List<List<Entry>> getReusedClusters() {
+        List<List<Entry>> reused = new ArrayList<>();
+        for (Set<Entry> cluster : clusters.values()) {
+            if (cluster.size() > 1) {
+                List<Entry> entries = new ArrayList<>(cluster);
+                entries.sort(Comparator.comparing(Entry::getName, String.CASE_INSENSITIVE_ORDER));
+                reused.add(entries);
+            }
+        }
+        reused.sort(Comparator.comparingInt(List<Entry>::size).reversed());
+        return reused;
+    }
+
+    /**
+     * @EFFECTS: returns how many other entries use the same password as entry
+     */
+    public int countOthersSharing(Entry entry) {
+        ByteBuffer key = fingerprint(entry.getPasswordText());
+        synchronized (this) {
+            Set<Entry> cluster = clusters.get(key);
+            if (cluster == null) {
+                return 0;
+            }
+            return cluster.contains(entry) ? cluster.size() - 1 : cluster.size();
+        }
+    }
+}
@@ -4,7 +4,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import me.gosimple.nbvcxz.scoring.Result;
+import model.metrics.Metrics;
 import model.security.Decryptor;
 import model.security.Encryptor;
 import model.security.Keyset;
@@ -24,11 +24,12 @@ public class Entry {
     private String url;
     private String notes;
     private byte[] saltBytes;
+    private String sealedStrength;
 
     /**
      * @REQUIRES: name, username, url, and notes have non-zero length; password is not null
      * @EFFECTS: creates entry object which instantiates all the fields with the parameters that are passed into the
-     * constructor
+     * constructor; the password is estimated against the words of the name, username and url
      */
     public Entry(String name, String username, Password password, String url,
                  String notes) {
@@ -37,6 +38,7 @@ public class Entry {
         this.password = password;
         this.url = url;
         this.notes = notes;
+        password.setContext(StrengthEstimator.contextWords(name, username, url));
         setUpEncryptionFields();
     }
 
@@ -49,18 +51,36 @@ public class Entry {
     @JsonCreator
     /**
      * @REQUIRES: name, username, url, notes, and passowrd have non-zero length
-     * @EFFECTS: custom constructor for Entry when reading from json file
+     * @EFFECTS: custom constructor for Entry when reading from json file; strength is the sealed strength summary of
+     * the password, or null for entries saved before summaries were stored
      */
     public Entry(@JsonProperty("name") String name,
                  @JsonProperty("username") String username,
                  @JsonProperty("password") String password,
                  @JsonProperty("url") String url,
-                 @JsonProperty("notes") String notes) {
+                 @JsonProperty("notes") String notes,
+                 @JsonProperty("strength") String strength) {
         this.name = name;
         this.username = username;
         this.password = new Password(password);
         this.url = url;
         this.notes = notes;
+        this.sealedStrength = strength;
+    }
+
+    /**
+     * @REQUIRES: name, username, url, notes, and passowrd have non-zero length
+     * @EFFECTS: creates an encrypted entry with no strength summary
+     */
+    public Entry(String name, String username, String password, String url, String notes) {
+        this(name, username, password, url, notes, null);
+    }
+
+    /**
+     * @EFFECTS: makes keySet the key every entry is encrypted and decrypted with
+     */
+    public static void useKeySet(Keyset keySet) {
+        Entry.keySet = keySet;
     }
 
     public static void instantiateKeySet(String masterPassword) {
@@ -95,6 +115,15 @@ public class Entry {
         return encryptor.encrypt(password.getPasswordText(), keySet, saltBytes);
     }
 
+    /**
+     * @EFFECTS: returns the strength summary of the password encrypted like the other fields, so that loading the
+     * entry again does not have to estimate the password; estimates it first if that was not done yet
+     */
+    @JsonGetter("strength")
+    public String getEncryptedStrength() {
+        return encryptor.encrypt(password.getStrengthSummary().encode(), keySet, saltBytes);
+    }
+
     @JsonGetter("username")
     public String getEncryptedUsername() {
         return encryptor.encrypt(username, keySet, saltBytes);
@@ -102,9 +131,11 @@ public class Entry {
 
     /**
      * @REQUIRES: name, username, password, url, and notes are not null
-     * @EFFECTS: creates a JSONObject and adds the encrypted strings of the fields to it
+     * @EFFECTS: creates a JSONObject and adds the encrypted strings of the fields to it; the stored strength summary
+     * is reused if it still matches the password and the estimator, so the password is not estimated again
      */
     public Entry decrypt() throws GeneralSecurityException {
+        long start = Metrics.ENTRY_DECRYPT.start();
         String name = decryptor.decrypt(this.name, saltBytes, keySet);
         String username = decryptor.decrypt(this.username, saltBytes, keySet);
         String password =
@@ -112,7 +143,10 @@ public class Entry {
                         keySet);
         String url = decryptor.decrypt(this.url, saltBytes, keySet);
         String notes = decryptor.decrypt(this.notes, saltBytes, keySet);
-        return new Entry(name, username, new Password(password), url, notes);
+        StrengthSummary summary = sealedStrength == null ? null
+                : StrengthSummary.parse(decryptor.decrypt(sealedStrength, saltBytes, keySet));
+        Metrics.ENTRY_DECRYPT.stop(start);
+        return new Entry(name, username, new Password(password, summary), url, notes);
     }
 
     @Override
@@ -201,11 +235,7 @@ public class Entry {
     }
 
     private String parseScore() {
-        String stars = "";
-        for (int i = 0; i < password.findScore() + 1; i++) {
-            stars += "*";
-        }
-        return stars;
+        return "*".repeat(password.findScore() + 1) + (password.isApproximate() ? " (approximate)" : "");
     }
 
     // TODO: add general numbers for number of guesses to crack.
@@ -232,10 +262,9 @@ public class Entry {
         sb.append("\nWarning: " +
                 ((warning == null) ? "None. Strong password!" : warning));
 
-        Result result = password.getResult();
         sb.append("\nPassword entropy (higher the better): " +
-                result.getEntropy().shortValue());
-        sb.append("\nNumber of guesses to crack: " + result.getGuesses());
+                Math.round(password.getEntropy()) + (password.isApproximate() ? " (approximate)" : ""));
+        sb.append("\nNumber of guesses to crack: " + password.getGuesses());
 
         return sb;
     }
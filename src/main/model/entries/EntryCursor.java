@@ -0,0 +1,50 @@
+package model.entries;
+
+import java.util.List;
+
+// Represents a position in a file's entries that hands them out one page at a time. Each page is copied while the file
+// is locked, so a page is consistent even if a background load or the user changes the file between pages.
+public class EntryCursor {
+    private final File file;
+    private final int pageSize;
+    private int position;
+
+    /**
+     * @REQUIRES: pageSize > 0
+     * @EFFECTS: creates a cursor positioned before the first entry of file
+     */
+    public EntryCursor(File file, int pageSize) {
+        this.file = file;
+        this.pageSize = pageSize;
+        this.position = 0;
+    }
+
+    /**
+     * @EFFECTS: returns true if the file has entries at or after the current position
+     */
+    public boolean hasNext() {
+        return position < file.getSizeOfEntries();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: returns up to pageSize entries starting at the current position and moves past them; returns an empty
+     * list if there are no entries left
+     */
+    public List<Entry> nextPage() {
+        List<Entry> page = file.getPage(position, pageSize);
+        position += page.size();
+        return page;
+    }
+
+    /**
+     * @EFFECTS: returns the index of the first entry of the next page
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
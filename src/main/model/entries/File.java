@@ -3,15 +3,21 @@ package model.entries;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.event.EventLog;
+import model.metrics.Metrics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-// Represents a file which will contain a list of entries
+// Represents a file which will contain a list of entries. Methods that read or change the entries are synchronized so
+// that a background load or save can run while the user keeps working with the entries already in memory.
 public class File {
 
     private List<Entry> entries;
     private EventLog eventLog = EventLog.getInstance();
+    private long modificationCount;
+    private final List<FileListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * @EFFECTS: creates a new file with no entries
@@ -28,26 +34,69 @@ public class File {
         this.entries = entries;
     }
 
+    /**
+     * @EFFECTS: returns the live list of entries; callers that may run alongside a background load or save should use
+     * snapshot instead
+     */
     public List<Entry> getEntries() {
         return entries;
     }
 
+    /**
+     * @EFFECTS: returns a copy of the entries as they are right now
+     */
+    public synchronized List<Entry> snapshot() {
+        return new ArrayList<>(entries);
+    }
+
     /**
      * @REQUIRES: entries is not null
      * @MODIFIES: entries
      * @EFFECTS: setter for entries
      */
-    public void setEntries(List<Entry> entries) {
+    public synchronized void setEntries(List<Entry> entries) {
         this.entries = entries;
+        for (FileListener listener : listeners) {
+            listener.entriesCleared();
+            entries.forEach(listener::entryAdded);
+        }
     }
 
     /**
      * @MODIFIES: this
      * @EFFECTS: adds the entry parameter to the end of the entries list
      */
-    public void addEntry(Entry entry) {
+    public synchronized void addEntry(Entry entry) {
         entries.add(entry);
         eventLog.addEntry(entries.size(), entry.getName());
+        added(entry);
+        changed();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: adds every entry of batch to the end of the entries list as a single change; the caller logs the
+     * import as a whole instead of one event per entry
+     */
+    public synchronized void addEntries(List<Entry> batch) {
+        entries.addAll(batch);
+        batch.forEach(this::added);
+        changed();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: adds an entry read from disk to the end of the entries list without logging it as a new entry
+     */
+    public synchronized void appendLoadedEntry(Entry entry) {
+        entries.add(entry);
+        added(entry);
+    }
+
+    private void added(Entry entry) {
+        for (FileListener listener : listeners) {
+            listener.entryAdded(entry);
+        }
     }
 
     /**
@@ -55,16 +104,54 @@ public class File {
      * @MODIFIES: entries
      * @EFFECTS: removes entry with index i
      */
-    public void removeEntry(int i) {
-        String nameOfEntry = entries.get(i).getName();
-        entries.remove(i);
-        eventLog.removeEntry(++i, nameOfEntry);
+    public synchronized void removeEntry(int i) {
+        Entry removed = entries.remove(i);
+        eventLog.removeEntry(++i, removed.getName());
+        for (FileListener listener : listeners) {
+            listener.entryRemoved(removed);
+        }
+        changed();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: counts one more change made by the user and notifies the listeners
+     */
+    private void changed() {
+        modificationCount++;
+        for (FileListener listener : listeners) {
+            listener.entriesChanged();
+        }
+    }
+
+    /**
+     * @EFFECTS: returns how many times the user has added or removed an entry; loading entries from disk does not
+     * count as a change
+     */
+    public synchronized long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: registers listener to be told about every change the user makes to the entries
+     */
+    public void addListener(FileListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: stops telling listener about changes
+     */
+    public void removeListener(FileListener listener) {
+        listeners.remove(listener);
     }
 
     /**
      * @EFFECTS: returns the size of the list
      */
-    public int getSizeOfEntries() {
+    public synchronized int getSizeOfEntries() {
         return entries.size();
     }
 
@@ -72,28 +159,71 @@ public class File {
      * @REQUIRES: entries has at least one element; i < entries.getSizeOfEntries()
      * @EFFECTS: returns the entry at the specified index of the entries list
      */
-    public Entry getEntryAtIndex(int i) {
+    public synchronized Entry getEntryAtIndex(int i) {
         return entries.get(i);
     }
 
+    /**
+     * @REQUIRES: fromIndex >= 0, count >= 0
+     * @EFFECTS: returns a copy of at most count entries starting at fromIndex; returns an empty list if fromIndex is
+     * past the last entry
+     */
+    public synchronized List<Entry> getPage(int fromIndex, int count) {
+        int from = Math.min(fromIndex, entries.size());
+        int to = (int) Math.min((long) from + count, entries.size());
+        return new ArrayList<>(entries.subList(from, to));
+    }
+
+    /**
+     * @REQUIRES: pageSize > 0
+     * @EFFECTS: returns a cursor over the entries that hands them out pageSize at a time
+     */
+    public EntryCursor cursor(int pageSize) {
+        return new EntryCursor(this, pageSize);
+    }
+
+    /**
+     * @REQUIRES: query is not null
+     * @EFFECTS: returns the indices of the entries whose name, username or url contains query, ignoring case
+     */
+    public synchronized List<Integer> findEntries(String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            if (contains(e.getName(), needle) || contains(e.getUsername(), needle)
+                    || contains(e.getUrl(), needle)) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean contains(String field, String needle) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
     /**
      * @EFFECTS: returns contents of entries arraylist into parse-able JSON data
      */
     public String toJson() {
         ObjectMapper mapper = new ObjectMapper();
+        long start = Metrics.JSON_SERIALIZE.start();
         try {
 //            return mapper.writeValueAsString(entries);
             return mapper.writerWithDefaultPrettyPrinter()
-                    .writeValueAsString(entries);
+                    .writeValueAsString(snapshot());
         } catch (JsonProcessingException e) {
             System.out.println(
                     "Error in saving entries. Entries were not saved.");
+        } finally {
+            Metrics.JSON_SERIALIZE.stop(start);
         }
         return null;
     }
 
     public String viewEntry(int index) throws IndexOutOfBoundsException {
-        Entry target = entries.get(index);
+        Entry target = getEntryAtIndex(index);
         StringBuilder sb = new StringBuilder();
         sb.append(target.toString(index));
         sb.append(target.detailedView().toString());
@@ -0,0 +1,30 @@
+package model.entries;
+
+// Represents an observer of the entries in a file. entriesChanged is only called for changes the user makes, while
+// entryAdded, entryRemoved and entriesCleared follow every entry in and out of the file, including the ones a load
+// brings in. Listeners are called while the file is locked, so they must return quickly.
+public interface FileListener {
+
+    /**
+     * @EFFECTS: receives notice that the entries of a file were changed by the user
+     */
+    void entriesChanged();
+
+    /**
+     * @EFFECTS: receives notice that entry was added to the file
+     */
+    default void entryAdded(Entry entry) {
+    }
+
+    /**
+     * @EFFECTS: receives notice that entry was removed from the file
+     */
+    default void entryRemoved(Entry entry) {
+    }
+
+    /**
+     * @EFFECTS: receives notice that every entry was removed from the file
+     */
+    default void entriesCleared() {
+    }
+}
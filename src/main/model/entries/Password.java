@@ -1,53 +1,130 @@
 package model.entries;
 
-import me.gosimple.nbvcxz.Nbvcxz;
 import me.gosimple.nbvcxz.resources.Feedback;
 import me.gosimple.nbvcxz.scoring.Result;
+import model.metrics.Metrics;
+import model.metrics.PasswordEstimateEvent;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
 
 // Represents a password with the plaintext string password, Result field and Feedback field. The latter two are
-// provided by Nbvcxz and are used to calculate password strength and potential feedback on bad passwords.
+// provided by Nbvcxz and are used to calculate password strength and potential feedback on bad passwords. Nbvcxz only
+// runs the first time the result or feedback is needed, within the limits of the shared StrengthEstimator; the score,
+// entropy and guesses can instead come from a strength summary stored with the entry, as long as it was computed from
+// this password by the current estimator. A password that belongs to an entry is estimated against the words of the
+// entry's name, username and url, so a password made of them does not score as if they were unknown.
 public class Password {
     private String passwordText;
     private Result result;
     private Feedback feedback;
+    private StrengthSummary summary;
+    private StrengthSummary stored;
+    private List<String> context = Collections.emptyList();
 
     /**
      * @REQUIRES: password is not null and not an empty string
-     * @EFFECTS: creates password object and sets password field to the parameter it was passed; creates a temporary
-     * Nbvcxz to instantiate the result and feedback fields based off the parameter
+     * @EFFECTS: creates password object and sets password field to the parameter it was passed; the strength is only
+     * estimated once it is first needed
      */
     public Password(String passwordText) {
-        Nbvcxz nbvcxz = new Nbvcxz();
+        this.passwordText = passwordText;
+    }
 
+    /**
+     * @REQUIRES: password is not null and not an empty string
+     * @EFFECTS: creates password object whose score, entropy and guesses are taken from stored if it was computed
+     * from passwordText and its context by the current estimator, and estimated once they are first needed otherwise
+     */
+    public Password(String passwordText, StrengthSummary stored) {
         this.passwordText = passwordText;
-        result = nbvcxz.estimate(passwordText);
-        feedback = result.getFeedback();
+        this.stored = stored;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: makes words the context the password is estimated against; an estimate made against other words is
+     * dropped
+     */
+    public synchronized void setContext(List<String> words) {
+        if (!words.equals(context)) {
+            context = List.copyOf(words);
+            result = null;
+            feedback = null;
+            summary = null;
+        }
+    }
+
+    public synchronized List<String> getContext() {
+        return context;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: instantiates the result and feedback fields with the shared estimator if that was not done yet
+     */
+    private synchronized void estimate() {
+        if (result != null) {
+            return;
+        }
+        long start = Metrics.PASSWORD_SCORE.start();
+        PasswordEstimateEvent event = new PasswordEstimateEvent();
+        event.begin();
+
+        Result estimate = StrengthEstimator.getInstance().estimate(passwordText, context);
+        feedback = estimate.getFeedback();
+        result = estimate;
+        event.finish(passwordText.length(), estimate);
+        Metrics.PASSWORD_SCORE.stop(start);
     }
 
     public Result getResult() {
+        estimate();
         return result;
     }
 
     /**
-     * @REQUIRES: result is not null
      * @EFFECTS: returns the score (between 1 and 4) of the password calculated by the nbvcxz library
      */
     public int findScore() {
-//        return getBasicScore();
-        return result.getBasicScore();
-    }
-
-    private int getBasicScore() {
-        double entropy = result.getEntropy();
-        if (entropy <= 10) {
-            return 0;
-        } else if (entropy <= 32) {
-            return 1;
-        } else if (entropy <= 64) {
-            return 2;
-        } else {
-            return entropy <= 70 ? 3 : 4;
+        return getStrengthSummary().getScore();
+    }
+
+    /**
+     * @EFFECTS: returns the entropy of the password in bits
+     */
+    public double getEntropy() {
+        return getStrengthSummary().getEntropy();
+    }
+
+    /**
+     * @EFFECTS: returns the estimated number of guesses needed to crack the password
+     */
+    public BigDecimal getGuesses() {
+        return getStrengthSummary().getGuesses();
+    }
+
+    /**
+     * @EFFECTS: returns true if the strength is partly an analytic estimate because the password was too long
+     */
+    public boolean isApproximate() {
+        return getStrengthSummary().isApproximate();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: returns the score, entropy and guesses of the password, estimating them if no valid summary was given
+     */
+    public synchronized StrengthSummary getStrengthSummary() {
+        StrengthEstimator estimator = StrengthEstimator.getInstance();
+        if (summary == null && stored != null && stored.isValidFor(passwordText, context, estimator.getVersion())) {
+            summary = stored;
+        }
+        if (summary == null) {
+            summary = estimator.summarize(passwordText, context, getResult());
         }
+        return summary;
     }
 
     public String getPasswordText() {
@@ -55,6 +132,7 @@ public class Password {
     }
 
     public Feedback getFeedback() {
+        estimate();
         return feedback;
     }
 }
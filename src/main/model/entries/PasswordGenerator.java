@@ -7,9 +7,13 @@ import java.util.ArrayList;
 
 // Represents a random password generator. It extends the Generator class included in the Nbvcxz library and overrides
 // some methods to be better utilized by the password manager. The code methods and outline is inspired by the Generator
-// class in the Nbvcxz library.
+// class in the Nbvcxz library. Passphrases are drawn from a Wordlist instead of the nbvcxz dictionary, which
+// Generator would load again on every call. Passwords that must follow a PasswordPolicy are built in one pass: the
+// required characters of each type are drawn first, the rest from every allowed character, and the result is shuffled,
+// so a password of length n always takes 2n - 1 random draws and never has to be generated again.
 public class PasswordGenerator extends Generator {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
     private static PasswordGenerator passwordGenerator;
 
     private PasswordGenerator() {
@@ -23,6 +27,22 @@ public class PasswordGenerator extends Generator {
         return passwordGenerator;
     }
 
+    /**
+     * @REQUIRES: words > 0
+     * @EFFECTS: returns a passphrase of words words from the built-in wordlist separated by delimiter
+     */
+    public static String generatePassphrase(String delimiter, int words) {
+        return generatePassphrase(Wordlist.builtIn(), delimiter, words);
+    }
+
+    /**
+     * @REQUIRES: words > 0
+     * @EFFECTS: returns a passphrase of words words from wordlist separated by delimiter
+     */
+    public static String generatePassphrase(Wordlist wordlist, String delimiter, int words) {
+        return wordlist.generatePassphrase(delimiter, words, RANDOM);
+    }
+
     /**
      * @EFFECTS: returns a random password given the character types that are available and the length specified
      */
@@ -93,25 +113,78 @@ public class PasswordGenerator extends Generator {
         StringBuilder sb = new StringBuilder();
 
         for (CharacterTypes ct : characterTypes) {
-            switch (ct) {
-                case LOWERCASE_ALPHA:
-                    sb.append("abcdefghijklmnopqrstuvwxyz");
-                    break;
-                case UPPERCASE_ALPHA:
-                    sb.append("ABCDEFGHIJKLNOPQRSTUVWXYZ");
-                    break;
-                case SYMBOLS:
-                    sb.append("!@#$%^&*()");
-                    break;
-                default:
-                    sb.append("1234567890");
-                    break;
-            }
+            sb.append(characters(ct));
         }
 
         return sb.toString();
     }
 
+    /**
+     * @EFFECTS: returns the characters of the given character type
+     */
+    static String characters(CharacterTypes characterType) {
+        switch (characterType) {
+            case LOWERCASE_ALPHA:
+                return "abcdefghijklmnopqrstuvwxyz";
+            case UPPERCASE_ALPHA:
+                return "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+            case SYMBOLS:
+                return "!@#$%^&*()";
+            default:
+                return "1234567890";
+        }
+    }
+
+    /**
+     * @EFFECTS: returns a random password that follows policy; with a limit on repeats, every character is available
+     * that many times and is drawn without replacement, so no character can appear more often
+     */
+    public String generatePassword(PasswordPolicy policy) {
+        boolean replace = policy.getMaxRepeats() == PasswordPolicy.UNLIMITED;
+        int copies = replace ? 1 : policy.getMaxRepeats();
+        char[] password = new char[policy.getLength()];
+        StringBuilder remaining = new StringBuilder();
+        int next = 0;
+        for (CharacterTypes type : policy.getTypes()) {
+            char[] pool = policy.alphabet(type).repeat(copies).toCharArray();
+            int minimum = policy.getMinimum(type);
+            int used = draw(pool, minimum, replace, password, next);
+            next += minimum;
+            remaining.append(pool, used, pool.length - used);
+        }
+        char[] pool = remaining.toString().toCharArray();
+        draw(pool, password.length - next, replace, password, next);
+        for (int i = password.length - 1; i > 0; i--) {
+            int j = RANDOM.nextInt(i + 1);
+            char c = password[i];
+            password[i] = password[j];
+            password[j] = c;
+        }
+        return new String(password);
+    }
+
+    /**
+     * @REQUIRES: count <= pool.length unless replace; into has room for count characters from at
+     * @MODIFIES: pool, into
+     * @EFFECTS: draws count characters from pool into into starting at at, and returns how many characters at the
+     * front of pool were used up; without replace, each drawn character is swapped to the front so it cannot be drawn
+     * again
+     */
+    private static int draw(char[] pool, int count, boolean replace, char[] into, int at) {
+        for (int i = 0; i < count; i++) {
+            if (replace) {
+                into[at + i] = pool[RANDOM.nextInt(pool.length)];
+            } else {
+                int j = i + RANDOM.nextInt(pool.length - i);
+                char c = pool[j];
+                pool[j] = pool[i];
+                pool[i] = c;
+                into[at + i] = c;
+            }
+        }
+        return replace ? 0 : count;
+    }
+
     /**
      * @EFFECTS: list of the 4 different character types that are included as an option in the password
      */
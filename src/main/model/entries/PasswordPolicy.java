@@ -0,0 +1,114 @@
+package model.entries;
+
+import model.entries.PasswordGenerator.CharacterTypes;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Represents the rules a generated password must follow: its length, the character types it is drawn from with the
+// least number of characters of each, whether characters that are easily confused with one another are left out, and
+// how many times any one character may appear. A policy that no password can satisfy is rejected when it is created,
+// so generating from a valid policy never has to retry.
+public class PasswordPolicy {
+    public static final String AMBIGUOUS = "Il1O0|";
+    public static final int UNLIMITED = 0;
+
+    private final int length;
+    private final Map<CharacterTypes, Integer> minimums;
+    private final boolean excludeAmbiguous;
+    private final int maxRepeats;
+
+    /**
+     * @EFFECTS: creates a policy for passwords of the given length drawn from the character types that are keys of
+     * minimums, with at least the mapped number of characters of each; ambiguous characters are left out if
+     * excludeAmbiguous, and no character appears more than maxRepeats times unless it is UNLIMITED; throws
+     * IllegalArgumentException if no password satisfies the policy
+     */
+    public PasswordPolicy(int length, Map<CharacterTypes, Integer> minimums, boolean excludeAmbiguous,
+                          int maxRepeats) {
+        this.length = length;
+        this.minimums = Collections.unmodifiableMap(new EnumMap<>(minimums));
+        this.excludeAmbiguous = excludeAmbiguous;
+        this.maxRepeats = maxRepeats;
+        check();
+    }
+
+    /**
+     * @EFFECTS: returns a policy for passwords of the given length with at least one character of each of types
+     */
+    public static PasswordPolicy atLeastOneOf(List<CharacterTypes> types, int length) {
+        Map<CharacterTypes, Integer> minimums = new EnumMap<>(CharacterTypes.class);
+        for (CharacterTypes type : types) {
+            minimums.put(type, 1);
+        }
+        return new PasswordPolicy(length, minimums, false, UNLIMITED);
+    }
+
+    /**
+     * @EFFECTS: throws IllegalArgumentException if the settings are out of range or ask for more characters than the
+     * length or the available characters allow
+     */
+    private void check() {
+        if (length <= 0 || minimums.isEmpty() || maxRepeats < 0) {
+            throw new IllegalArgumentException("A policy needs a positive length and at least one character type");
+        }
+        int required = 0;
+        int available = 0;
+        for (CharacterTypes type : minimums.keySet()) {
+            int minimum = getMinimum(type);
+            int supply = maxRepeats == UNLIMITED ? Integer.MAX_VALUE : alphabet(type).length() * maxRepeats;
+            if (minimum < 0 || minimum > supply) {
+                throw new IllegalArgumentException("Cannot fit " + minimum + " " + type + " characters");
+            }
+            required += minimum;
+            available = (int) Math.min(Integer.MAX_VALUE, (long) available + supply);
+        }
+        if (required > length || length > available) {
+            throw new IllegalArgumentException("Cannot make a password of " + length + " characters that has "
+                    + required + " required characters and " + available + " available");
+        }
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public Set<CharacterTypes> getTypes() {
+        return minimums.keySet();
+    }
+
+    /**
+     * @EFFECTS: returns the least number of characters of type a password must have, or 0 if type is not used
+     */
+    public int getMinimum(CharacterTypes type) {
+        return minimums.getOrDefault(type, 0);
+    }
+
+    public boolean isExcludeAmbiguous() {
+        return excludeAmbiguous;
+    }
+
+    public int getMaxRepeats() {
+        return maxRepeats;
+    }
+
+    /**
+     * @EFFECTS: returns the characters of type that passwords following this policy are drawn from
+     */
+    public String alphabet(CharacterTypes type) {
+        String characters = PasswordGenerator.characters(type);
+        if (!excludeAmbiguous) {
+            return characters;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (char c : characters.toCharArray()) {
+            if (AMBIGUOUS.indexOf(c) < 0) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
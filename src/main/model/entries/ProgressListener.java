@@ -0,0 +1,12 @@
+package model.entries;
+
+// Represents a callback that is told how many entries a long-running operation has processed so far
+public interface ProgressListener {
+    ProgressListener NONE = (processed, total) -> { };
+
+    /**
+     * @REQUIRES: 0 <= processed <= total
+     * @EFFECTS: receives the number of entries processed so far out of total
+     */
+    void onProgress(int processed, int total);
+}
@@ -0,0 +1,164 @@
+package model.entries;
+
+import me.gosimple.nbvcxz.Nbvcxz;
+import me.gosimple.nbvcxz.resources.Configuration;
+import me.gosimple.nbvcxz.resources.ConfigurationBuilder;
+import me.gosimple.nbvcxz.resources.Dictionary;
+import me.gosimple.nbvcxz.resources.DictionaryBuilder;
+import me.gosimple.nbvcxz.scoring.Result;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Represents the bounded use of nbvcxz shared by every password. Matching cost grows sharply with length, so only the
+// first maxLength characters are matched, and the search for the best combination of matches settles for a good enough
+// one after timeoutMillis. Characters past the length limit are estimated analytically from the size of the character
+// pool they are drawn from, and such estimates are marked approximate. The limits come from the
+// safepass.strength.maxLength and safepass.strength.timeoutMillis properties. A password can be estimated against
+// context words, such as the name, username and url of its entry; they go into a small dictionary of their own next to
+// the built-in ones, which are loaded once and shared by every estimate.
+public final class StrengthEstimator {
+    public static final String VERSION = "nbvcxz-1.5.1/2";
+    public static final int DEFAULT_MAX_LENGTH = 64;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 100;
+    private static final double[] SCORE_ENTROPY = {10, 32, 64, 70};
+    private static final int MAX_EXPONENT = 999_999_999;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final Set<String> IGNORED_WORDS = Set.of("www", "com", "org", "net", "http", "https");
+    private static StrengthEstimator instance;
+
+    private final Configuration configuration;
+    private final int maxLength;
+
+    /**
+     * @REQUIRES: maxLength > 0, timeoutMillis > 0
+     * @EFFECTS: creates an estimator that matches at most maxLength characters and searches for at most timeoutMillis
+     */
+    public StrengthEstimator(int maxLength, long timeoutMillis) {
+        this.maxLength = maxLength;
+        configuration = new ConfigurationBuilder().setMaxLength(maxLength)
+                .setCombinationAlgorithmTimeout(timeoutMillis).createConfiguration();
+    }
+
+    /**
+     * @EFFECTS: returns the estimator whose limits come from the system properties
+     */
+    public static synchronized StrengthEstimator getInstance() {
+        if (instance == null) {
+            instance = new StrengthEstimator(Integer.getInteger("safepass.strength.maxLength", DEFAULT_MAX_LENGTH),
+                    Long.getLong("safepass.strength.timeoutMillis", DEFAULT_TIMEOUT_MILLIS));
+        }
+        return instance;
+    }
+
+    /**
+     * @EFFECTS: returns the version that strength summaries made by this estimator are stored with; it includes the
+     * length limit, since a different limit gives different estimates of long passwords
+     */
+    public String getVersion() {
+        return VERSION + "-" + maxLength;
+    }
+
+    /**
+     * @EFFECTS: returns the nbvcxz estimate of the first maxLength characters of passwordText
+     */
+    public Result estimate(String passwordText) {
+        return new Nbvcxz(configuration).estimate(passwordText);
+    }
+
+    /**
+     * @EFFECTS: returns the nbvcxz estimate of the first maxLength characters of passwordText, where the context words
+     * count as dictionary words ranked in the order given
+     */
+    public Result estimate(String passwordText, List<String> context) {
+        if (context.isEmpty()) {
+            return estimate(passwordText);
+        }
+        return new Nbvcxz(withContext(context)).estimate(passwordText);
+    }
+
+    /**
+     * @EFFECTS: returns the shared configuration with one more dictionary holding the context words
+     */
+    private Configuration withContext(List<String> context) {
+        DictionaryBuilder builder = new DictionaryBuilder().setDictionaryName("context");
+        for (int i = 0; i < context.size(); i++) {
+            builder.addWord(context.get(i), i + 1);
+        }
+        List<Dictionary> dictionaries = new ArrayList<>(configuration.getDictionaries());
+        dictionaries.add(builder.createDictionary());
+        return new Configuration(configuration.getPasswordMatchers(), configuration.getGuessTypes(), dictionaries,
+                configuration.getAdjacencyGraphs(), configuration.getLeetTable(), configuration.getYearPattern(),
+                configuration.getMinimumEntropy(), configuration.getMaxLength(), configuration.getLocale(),
+                configuration.isDistanceCalc(), configuration.getCombinationAlgorithmTimeout());
+    }
+
+    /**
+     * @EFFECTS: returns the distinct lower case words of at least MIN_WORD_LENGTH letters or digits found in fields,
+     * in order, leaving out parts of urls such as www and com; null fields are skipped
+     */
+    public static List<String> contextWords(String... fields) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            for (String word : field.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (word.length() >= MIN_WORD_LENGTH && !IGNORED_WORDS.contains(word)) {
+                    words.add(word);
+                }
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * @REQUIRES: result is the estimate of passwordText against the context words made by this estimator
+     * @EFFECTS: returns the summary of result; if passwordText was cut short, the remaining characters add the entropy
+     * of a random choice from their character pool and the summary is approximate
+     */
+    public StrengthSummary summarize(String passwordText, List<String> context, Result result) {
+        if (!result.isTruncated()) {
+            return new StrengthSummary(passwordText, context, getVersion(), result.getBasicScore(),
+                    result.getEntropy(), result.getGuesses(), false);
+        }
+        String rest = passwordText.substring(maxLength);
+        double entropy = result.getEntropy() + rest.length() * log2(poolSize(rest));
+        BigDecimal guesses = BigDecimal.valueOf(2).pow((int) Math.min(entropy, MAX_EXPONENT), MathContext.DECIMAL64);
+        return new StrengthSummary(passwordText, context, getVersion(), scoreOf(entropy), entropy, guesses, true);
+    }
+
+    /**
+     * @EFFECTS: returns how many characters the characters of text are drawn from, counting whole classes of lower
+     * case letters, upper case letters, digits, ASCII symbols and other characters
+     */
+    private static int poolSize(String text) {
+        boolean lower = text.chars().anyMatch(c -> c >= 'a' && c <= 'z');
+        boolean upper = text.chars().anyMatch(c -> c >= 'A' && c <= 'Z');
+        boolean digit = text.chars().anyMatch(c -> c >= '0' && c <= '9');
+        boolean other = text.chars().anyMatch(c -> c > '~');
+        boolean symbol = text.chars().anyMatch(c -> c <= '~' && !Character.isLetterOrDigit(c));
+        return Math.max(1, (lower ? 26 : 0) + (upper ? 26 : 0) + (digit ? 10 : 0) + (symbol ? 33 : 0)
+                + (other ? 100 : 0));
+    }
+
+    private static double log2(int n) {
+        return Math.log(n) / Math.log(2);
+    }
+
+    /**
+     * @EFFECTS: returns the score (between 0 and 4) of a password with the given entropy
+     */
+    private static int scoreOf(double entropy) {
+        int score = 0;
+        while (score < SCORE_ENTROPY.length && entropy > SCORE_ENTROPY[score]) {
+            score++;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,115 @@
+package model.entries;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+// Represents the result of estimating a password's strength, compact enough to be stored inside the sealed entry
+// record so that unlocking a vault does not have to estimate every password again. It remembers a hash of the
+// password and the context words it was estimated against, and the version of the estimator that produced it, and is
+// only trusted for that same password, context and version.
+// A summary is approximate if the estimator had to fall back to an analytic estimate.
+public class StrengthSummary {
+    private static final String FORMAT = "s2";
+    private static final int HASH_LENGTH = 16;
+
+    private final String estimatorVersion;
+    private final int score;
+    private final double entropy;
+    private final BigDecimal guesses;
+    private final byte[] passwordHash;
+    private final boolean approximate;
+
+    /**
+     * @EFFECTS: creates the summary of an estimate of passwordText against the context words made by the given
+     * estimator version
+     */
+    public StrengthSummary(String passwordText, List<String> context, String estimatorVersion, int score,
+                           double entropy, BigDecimal guesses, boolean approximate) {
+        this(estimatorVersion, score, entropy, guesses, hash(passwordText, context), approximate);
+    }
+
+    private StrengthSummary(String estimatorVersion, int score, double entropy, BigDecimal guesses,
+                            byte[] passwordHash, boolean approximate) {
+        this.estimatorVersion = estimatorVersion;
+        this.score = score;
+        this.entropy = entropy;
+        this.guesses = guesses;
+        this.passwordHash = passwordHash;
+        this.approximate = approximate;
+    }
+
+    /**
+     * @EFFECTS: returns the first HASH_LENGTH bytes of the SHA-256 hash of passwordText followed by the context words,
+     * each ended by a zero character
+     */
+    private static byte[] hash(String passwordText, List<String> context) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(passwordText.getBytes(StandardCharsets.UTF_8));
+            for (String word : context) {
+                digest.update((byte) 0);
+                digest.update(word.getBytes(StandardCharsets.UTF_8));
+            }
+            return Arrays.copyOf(digest.digest(), HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @EFFECTS: returns true if this summary was computed from passwordText against the context words by the given
+     * estimator version
+     */
+    public boolean isValidFor(String passwordText, List<String> context, String estimatorVersion) {
+        return this.estimatorVersion.equals(estimatorVersion)
+                && MessageDigest.isEqual(passwordHash, hash(passwordText, context));
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public double getEntropy() {
+        return entropy;
+    }
+
+    public BigDecimal getGuesses() {
+        return guesses;
+    }
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    /**
+     * @EFFECTS: returns this summary as a single line of text that parse turns back into it
+     */
+    public String encode() {
+        return String.join(";", FORMAT, estimatorVersion, Integer.toString(score), Double.toString(entropy),
+                guesses.toString(), Base64.getEncoder().encodeToString(passwordHash), Boolean.toString(approximate));
+    }
+
+    /**
+     * @EFFECTS: returns the summary encoded in text, or null if text is null or not a summary this version can read
+     */
+    public static StrengthSummary parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String[] parts = text.split(";");
+        if (parts.length != 7 || !parts[0].equals(FORMAT)) {
+            return null;
+        }
+        try {
+            return new StrengthSummary(parts[1], Integer.parseInt(parts[2]), Double.parseDouble(parts[3]),
+                    new BigDecimal(parts[4]), Base64.getDecoder().decode(parts[5]), Boolean.parseBoolean(parts[6]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package model.entries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Represents a generator of synthetic vaults for load testing. Names, usernames, urls and notes are built from a fixed
+// word list with a seeded Random so the same seed always produces the same vault layout; passwords come from the
+// PasswordGenerator and are random every time.
+public class VaultGenerator {
+    private static final String[] WORDS = {"mail", "cloud", "bank", "shop", "news", "photo", "music", "video",
+            "travel", "forum", "code", "game", "work", "school", "health", "social", "market", "stream", "drive",
+            "chat"};
+    private static final String[] DOMAINS = {"com", "ca", "org", "net", "io"};
+
+    private final int passwordLength;
+    private final int notesLength;
+    private final Random random;
+    private final ArrayList<Boolean> characterTypes;
+
+    /**
+     * @REQUIRES: passwordLength > 0, notesLength >= 0
+     * @EFFECTS: creates a generator whose entries have passwords of passwordLength characters and notes of about
+     * notesLength characters
+     */
+    public VaultGenerator(int passwordLength, int notesLength, long seed) {
+        this.passwordLength = passwordLength;
+        this.notesLength = notesLength;
+        this.random = new Random(seed);
+        this.characterTypes = new ArrayList<>(Arrays.asList(true, true, true, true));
+    }
+
+    /**
+     * @REQUIRES: size >= 0
+     * @EFFECTS: returns a new file holding size generated entries
+     */
+    public File generateFile(int size) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(generateEntry(i));
+        }
+        return new File(entries);
+    }
+
+    /**
+     * @EFFECTS: returns a generated entry; i is used to keep names unique within a vault
+     */
+    public Entry generateEntry(int i) {
+        String site = word() + word();
+        String name = capitalize(site) + " " + i;
+        String username = word() + i + "@" + word() + "." + DOMAINS[random.nextInt(DOMAINS.length)];
+        String url = "https://www." + site + "." + DOMAINS[random.nextInt(DOMAINS.length)];
+        String password = PasswordGenerator.getInstance().generatePassword(characterTypes, passwordLength);
+        return new Entry(name, username, new Password(password), url, notes());
+    }
+
+    private String notes() {
+        StringBuilder sb = new StringBuilder(notesLength + 8);
+        while (sb.length() < notesLength) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(word());
+        }
+        return sb.toString();
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
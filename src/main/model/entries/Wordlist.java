@@ -0,0 +1,147 @@
+package model.entries;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Represents a list of words to build passphrases from, such as the EFF long list or a list in another language. The
+// words are packed one after another into a single char array, with a table of where each one starts, so a list of
+// tens of thousands of words costs two arrays rather than an object per word, and picking a random word is a lookup in
+// the table. Each word chosen uniformly at random adds log2(size) bits of entropy to a passphrase.
+public final class Wordlist {
+    public static final String BUILT_IN_NAME = "eff_large";
+    private static final String BUILT_IN_RESOURCE = "/dictionaries/eff_large.txt";
+    private static Wordlist builtIn;
+
+    private final String name;
+    private final char[] chars;
+    private final int[] offsets;
+
+    private Wordlist(String name, char[] chars, int[] offsets) {
+        this.name = name;
+        this.chars = chars;
+        this.offsets = offsets;
+    }
+
+    /**
+     * @EFFECTS: returns the EFF long list that ships with nbvcxz, loading it the first time it is asked for; throws
+     * IllegalStateException if it is missing from the classpath
+     */
+    public static synchronized Wordlist builtIn() {
+        if (builtIn == null) {
+            try (InputStream in = Wordlist.class.getResourceAsStream(BUILT_IN_RESOURCE)) {
+                if (in == null) {
+                    throw new IOException(BUILT_IN_RESOURCE + " not found");
+                }
+                builtIn = read(BUILT_IN_NAME, new InputStreamReader(in, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load the built-in wordlist", e);
+            }
+        }
+        return builtIn;
+    }
+
+    /**
+     * @EFFECTS: returns the list stored in the UTF-8 text file at path, named after the file; see read
+     */
+    public static Wordlist load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(path.getFileName().toString(), reader);
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the list named name read from reader, one word per line; blank lines and lines starting with #
+     * are skipped, only the last column of a line is kept so that dice-numbered lists like the EFF ones can be used as
+     * they are, and repeated words are kept once; throws IOException if fewer than two distinct words are read
+     */
+    public static Wordlist read(String name, Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        Set<String> seen = new HashSet<>();
+        char[] chars = new char[1 << 12];
+        int[] offsets = new int[1 << 10];
+        int count = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            String word = lastColumn(line);
+            if (word.isEmpty() || word.startsWith("#") || !seen.add(word)) {
+                continue;
+            }
+            if (count + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int start = offsets[count];
+            if (start + word.length() > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + word.length()));
+            }
+            word.getChars(0, word.length(), chars, start);
+            offsets[++count] = start + word.length();
+        }
+        if (count < 2) {
+            throw new IOException(name + " holds fewer than two words");
+        }
+        return new Wordlist(name, Arrays.copyOf(chars, offsets[count]), Arrays.copyOf(offsets, count + 1));
+    }
+
+    private static String lastColumn(String line) {
+        String trimmed = line.trim();
+        int space = Math.max(trimmed.lastIndexOf(' '), trimmed.lastIndexOf('\t'));
+        return trimmed.startsWith("#") ? trimmed : trimmed.substring(space + 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @EFFECTS: returns the entropy in bits that one word chosen uniformly at random from this list adds
+     */
+    public double getEntropyPerWord() {
+        return Math.log(size()) / Math.log(2);
+    }
+
+    /**
+     * @REQUIRES: 0 <= index < size()
+     * @EFFECTS: returns the index-th word of the list
+     */
+    public String getWord(int index) {
+        return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * @REQUIRES: 0 <= index < size()
+     * @MODIFIES: sb
+     * @EFFECTS: appends the index-th word of the list to sb without creating a string for it
+     */
+    public void appendWord(int index, StringBuilder sb) {
+        sb.append(chars, offsets[index], offsets[index + 1] - offsets[index]);
+    }
+
+    /**
+     * @REQUIRES: words > 0
+     * @EFFECTS: returns words words chosen uniformly at random from the list with random, separated by delimiter
+     */
+    public String generatePassphrase(String delimiter, int words, Random random) {
+        StringBuilder sb = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(delimiter);
+            }
+            appendWord(random.nextInt(size()), sb);
+        }
+        return sb.toString();
+    }
+}
@@ -1,16 +1,21 @@
 package model.event;
 
-import java.util.Calendar;
 import java.util.Date;
+import java.util.Objects;
 
 
 /**
  * Represents an alarm system event.
+ * An event stores its type and payload rather than a finished
+ * description, and is stamped with a single System.currentTimeMillis()
+ * call, so creating one allocates nothing beyond the event itself.
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
-    private String description;
+    private final EventType type;
+    private final long timestamp;
+    private final int entryNumber;
+    private final String subject;
 
     /**
      * Creates an event with the given description
@@ -19,8 +24,41 @@ public class Event {
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
-        this.description = description;
+        this(EventType.MESSAGE, -1, description);
+    }
+
+    /**
+     * Creates an event of the given type that carries no payload.
+     *
+     * @param type the type of the event
+     */
+    public Event(EventType type) {
+        this(type, -1, null);
+    }
+
+    /**
+     * Creates an event of the given type about a subject, such as
+     * the name of the file that was loaded or saved.
+     *
+     * @param type    the type of the event
+     * @param subject what the event is about
+     */
+    public Event(EventType type, String subject) {
+        this(type, -1, subject);
+    }
+
+    /**
+     * Creates an event of the given type about an entry.
+     *
+     * @param type        the type of the event
+     * @param entryNumber the 1-based number of the entry, or -1 if none
+     * @param subject     the name of the entry
+     */
+    public Event(EventType type, int entryNumber, String subject) {
+        this.type = type;
+        this.entryNumber = entryNumber;
+        this.subject = subject;
+        timestamp = System.currentTimeMillis();
     }
 
     /**
@@ -29,21 +67,59 @@ public class Event {
      * @return the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(getTimestamp());
     }
 
     /**
-     * Gets the description of this event.
+     * Gets the time of this event in milliseconds since the epoch.
+     *
+     * @return the timestamp of the event
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    /**
+     * @return the 1-based number of the entry this event is about, or -1 if none
+     */
+    public int getEntryNumber() {
+        return entryNumber;
+    }
+
+    /**
+     * @return the entry name or file name this event is about, or null if none
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the description of this event. The description is
+     * formatted on every call, so avoid it on hot paths.
      *
      * @return the description of the event
      */
     public String getDescription() {
-        return description;
+        return type.format(entryNumber, subject);
+    }
+
+    /**
+     * Gets the description of this event without the name of the
+     * entry it is about, for logs that are not encrypted.
+     *
+     * @return the description of the event without entry names
+     */
+    public String getRedactedDescription() {
+        return type.formatRedacted(entryNumber, subject);
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timestamp) + Objects.hash(type, entryNumber, subject));
     }
 
     @Override
@@ -58,12 +134,14 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
-                && this.description.equals(otherEvent.description));
+        return (this.timestamp == otherEvent.timestamp
+                && this.type == otherEvent.type
+                && this.entryNumber == otherEvent.entryNumber
+                && Objects.equals(this.subject, otherEvent.subject));
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + getDescription();
     }
 }
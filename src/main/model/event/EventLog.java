@@ -1,28 +1,45 @@
 package model.event;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents a log of alarm system events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * The log is bounded: once it holds its capacity of events, new events either
+ * overwrite the oldest ones or are dropped, depending on its overflow policy.
+ * Besides the main time-ordered log, each event type has its own index
+ * of the same capacity, and each entry name has an index of the sequence
+ * numbers of the events about it, so queries by time, type or entry never
+ * scan the whole log.
  */
 public class EventLog implements Iterable<Event> {
     /**
-     * the only EventLog in the system (Singleton Design Pattern)
+     * capacity used unless the safepass.eventlog.capacity system property is set
      */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    public static final int DEFAULT_CAPACITY = 4096;
+    private volatile EventRingBuffer events;
+    private volatile AtomicReferenceArray<EventRingBuffer> typeIndexes;
+    private final ConcurrentHashMap<String, Queue<Long>> entryIndexes = new ConcurrentHashMap<>();
+    private final List<EventSink> sinks = new CopyOnWriteArrayList<>();
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<Event>();
+        events = new EventRingBuffer(
+                Integer.getInteger("safepass.eventlog.capacity", DEFAULT_CAPACITY),
+                OverflowPolicy.OVERWRITE_OLDEST);
+        typeIndexes = new AtomicReferenceArray<>(EventType.values().length);
     }
 
     /**
@@ -37,18 +54,35 @@ public class EventLog implements Iterable<Event> {
     }
 
     /**
-     * Gets instance of EventLog - creates it
-     * if it doesn't already exist.
+     * Gets instance of EventLog. The instance is created the first
+     * time this method is called; class initialization makes that
+     * safe when several threads call it at once.
      * (Singleton Design Pattern)
      *
      * @return instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
+        return Holder.THE_LOG;
+    }
 
-        return theLog;
+    /**
+     * Replaces the capacity and overflow policy of the log, keeping
+     * the most recent events that fit into the new capacity.
+     *
+     * @param capacity the maximum number of events retained, rounded up to a power of two
+     * @param policy   what to do with new events once the log is full
+     */
+    public synchronized void configure(int capacity, OverflowPolicy policy) {
+        EventRingBuffer old = events;
+        events = new EventRingBuffer(capacity, policy);
+        typeIndexes = new AtomicReferenceArray<>(EventType.values().length);
+        entryIndexes.clear();
+        long skip = Math.max(0, old.size() - events.getCapacity());
+        for (Event e : old) {
+            if (skip-- <= 0) {
+                append(e);
+            }
+        }
     }
 
     /**
@@ -56,16 +90,155 @@ public class EventLog implements Iterable<Event> {
      */
     public void clear() {
         events.clear();
-        logEvent(new Event("Event log cleared."));
+        for (int i = 0; i < typeIndexes.length(); i++) {
+            EventRingBuffer index = typeIndexes.get(i);
+            if (index != null) {
+                index.clear();
+            }
+        }
+        entryIndexes.clear();
+        logEvent(new Event(EventType.LOG_CLEARED));
     }
 
     /**
-     * Adds an event to the event log.
+     * Adds an event to the event log. Never blocks; if the log is full
+     * and its policy is to drop new events, the event is discarded.
      *
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        append(e);
+        for (EventSink sink : sinks) {
+            sink.accept(e);
+        }
+    }
+
+    private void append(Event e) {
+        long seq = events.append(e);
+        if (seq < 0) {
+            return;
+        }
+        typeIndex(e.getType()).append(e);
+        if (e.getType().isAboutEntry() && e.getSubject() != null) {
+            Queue<Long> index = entryIndexes.computeIfAbsent(e.getSubject(), name -> new ConcurrentLinkedQueue<>());
+            index.add(seq);
+            Long oldest;
+            while ((oldest = index.peek()) != null && events.eventAt(oldest) == null && oldest < seq) {
+                index.remove(oldest);
+            }
+        }
+    }
+
+    /**
+     * Gets the index for the given type, creating it the first time an
+     * event of that type is logged.
+     */
+    private EventRingBuffer typeIndex(EventType type) {
+        AtomicReferenceArray<EventRingBuffer> indexes = typeIndexes;
+        EventRingBuffer index = indexes.get(type.ordinal());
+        if (index == null) {
+            indexes.compareAndSet(type.ordinal(), null,
+                    new EventRingBuffer(events.getCapacity(), events.getPolicy()));
+            index = indexes.get(type.ordinal());
+        }
+        return index;
+    }
+
+    /**
+     * Gets the retained events logged within the given time range.
+     *
+     * @param fromMillis start of the range in milliseconds since the epoch, inclusive
+     * @param toMillis   end of the range in milliseconds since the epoch, inclusive
+     * @return the matching events, oldest first
+     */
+    public List<Event> getEventsBetween(long fromMillis, long toMillis) {
+        return events.between(fromMillis, toMillis);
+    }
+
+    /**
+     * Gets the retained events of the given type.
+     *
+     * @param type the type of events to return
+     * @return the matching events, oldest first
+     */
+    public List<Event> getEventsOfType(EventType type) {
+        return typeIndex(type).between(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets the retained events of the given type logged within the given time range.
+     *
+     * @param type       the type of events to return
+     * @param fromMillis start of the range in milliseconds since the epoch, inclusive
+     * @param toMillis   end of the range in milliseconds since the epoch, inclusive
+     * @return the matching events, oldest first
+     */
+    public List<Event> getEventsOfType(EventType type, long fromMillis, long toMillis) {
+        return typeIndex(type).between(fromMillis, toMillis);
+    }
+
+    /**
+     * Gets the retained events about the entry with the given name,
+     * that is, every time it was added or removed. Only the events in
+     * the index of that name are visited.
+     *
+     * @param name the name of the entry
+     * @return the matching events, oldest first
+     */
+    public List<Event> getEventsForEntry(String name) {
+        Queue<Long> index = entryIndexes.get(name);
+        List<Event> result = new ArrayList<>();
+        if (index == null) {
+            return result;
+        }
+        List<Long> seqs = new ArrayList<>(index);
+        seqs.sort(null);
+        for (long seq : seqs) {
+            Event e = events.eventAt(seq);
+            if (e != null) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers a sink that receives every event logged from now on.
+     *
+     * @param sink the sink to be added
+     */
+    public void addSink(EventSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Stops delivering events to the given sink.
+     *
+     * @param sink the sink to be removed
+     */
+    public void removeSink(EventSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * @return the number of events currently retained
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @return the maximum number of events retained
+     */
+    public int getCapacity() {
+        return events.getCapacity();
+    }
+
+    /**
+     * @return the number of events discarded because the log was full
+     */
+    public long getDroppedCount() {
+        return events.getDroppedCount();
     }
 
     @Override
@@ -75,13 +248,16 @@ public class EventLog implements Iterable<Event> {
 
     public void addEntry(int size, String name) {
         EventLog.getInstance().logEvent(
-                new Event("Added entry #" + size + " with name " + name + "."));
+                new Event(EventType.ENTRY_ADDED, size, name));
     }
 
     public void removeEntry(int index, String name) {
-        EventLog.getInstance().logEvent(new Event("Removed entry #" + ++index
-                + " with name " + name + "."));
+        EventLog.getInstance().logEvent(
+                new Event(EventType.ENTRY_REMOVED, ++index, name));
     }
 
-
+    // Holds the only EventLog in the system (Singleton Design Pattern)
+    private static class Holder {
+        private static final EventLog THE_LOG = new EventLog();
+    }
 }
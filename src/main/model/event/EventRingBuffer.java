@@ -0,0 +1,236 @@
+package model.event;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents a bounded ring buffer of events. Appending claims a sequence number with a single atomic operation and
+// never takes a lock, so the load and save threads can log at the same time as the input thread. Every slot remembers
+// the sequence number it was written for, which lets readers skip slots that are still being written or that have
+// already been overwritten. Threads stamp their events before they claim a slot, and the wall clock can step back, so
+// the same operation that claims a sequence number also gives it the time it was logged: the timestamp of its event,
+// or the time given to the sequence number before it if that is later. Logged times never decrease along the
+// sequence, so the buffer doubles as a time index that can be binary searched.
+class EventRingBuffer implements Iterable<Event> {
+    private final AtomicReferenceArray<Slot> slots;
+    private final int capacity;
+    private final int mask;
+    private final OverflowPolicy policy;
+    private final AtomicReference<Tail> tail;
+    private final LongAdder dropped;
+    private volatile long head;
+
+    /**
+     * @REQUIRES: capacity > 0; policy is not null
+     * @EFFECTS: creates an empty buffer holding at least capacity events, rounded up to the next power of two
+     */
+    EventRingBuffer(int capacity, OverflowPolicy policy) {
+        this.capacity = roundUpToPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.policy = policy;
+        slots = new AtomicReferenceArray<>(this.capacity);
+        tail = new AtomicReference<>(new Tail(0, Long.MIN_VALUE));
+        dropped = new LongAdder();
+    }
+
+    private static int roundUpToPowerOfTwo(int capacity) {
+        int highest = Integer.highestOneBit(Math.max(1, capacity));
+        return highest == capacity ? capacity : highest << 1;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: appends e to the buffer and returns the sequence number it was appended under; if the buffer is full,
+     * either overwrites the oldest event or drops e and returns -1 depending on the overflow policy
+     */
+    long append(Event e) {
+        Tail claimed = claim(e.getTimestamp());
+        if (claimed == null) {
+            dropped.increment();
+            return -1;
+        }
+        long seq = claimed.seq - 1;
+        slots.set(index(seq), new Slot(seq, claimed.millis, e));
+        return seq;
+    }
+
+    /**
+     * @EFFECTS: claims the next sequence number and stamps it with millis, or with the time of the one before it if
+     * that is later, and returns the new tail; returns null if the buffer is full and drops new events
+     */
+    private Tail claim(long millis) {
+        while (true) {
+            Tail t = tail.get();
+            if (policy == OverflowPolicy.DROP_NEWEST && t.seq - head >= capacity) {
+                return null;
+            }
+            Tail next = new Tail(t.seq + 1, Math.max(t.millis, millis));
+            if (tail.compareAndSet(t, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: discards every event currently in the buffer
+     */
+    synchronized void clear() {
+        long newHead = tail.get().seq;
+        for (long seq = Math.max(head, newHead - capacity); seq < newHead; seq++) {
+            Slot slot = slots.get(index(seq));
+            if (slot != null && slot.seq < newHead) {
+                slots.compareAndSet(index(seq), slot, null);
+            }
+        }
+        head = newHead;
+    }
+
+    /**
+     * @EFFECTS: returns the number of events currently retained
+     */
+    int size() {
+        return (int) Math.min(tail.get().seq - head, capacity);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @EFFECTS: returns the number of events rejected because the buffer was full
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+
+    /**
+     * @EFFECTS: returns the event stored under seq, or null if that slot is still being written, was overwritten or
+     * was cleared
+     */
+    Event eventAt(long seq) {
+        Slot slot = slotAt(seq);
+        return slot == null || seq < head ? null : slot.event;
+    }
+
+    private Slot slotAt(long seq) {
+        Slot slot = slots.get(index(seq));
+        return slot != null && slot.seq == seq ? slot : null;
+    }
+
+    /**
+     * @REQUIRES: fromMillis <= toMillis
+     * @EFFECTS: returns the retained events logged at fromMillis <= time <= toMillis, oldest first; finds the first one
+     * by binary search so only the matching events are visited
+     */
+    List<Event> between(long fromMillis, long toMillis) {
+        long end = tail.get().seq;
+        long seq = lowerBound(Math.max(head, end - capacity), end, fromMillis);
+        List<Event> result = new ArrayList<>();
+        for (; seq < end; seq++) {
+            Slot slot = slotAt(seq);
+            if (slot == null || slot.millis < fromMillis) {
+                continue;
+            }
+            if (slot.millis > toMillis) {
+                break;
+            }
+            result.add(slot.event);
+        }
+        return result;
+    }
+
+    /**
+     * @EFFECTS: returns the first sequence number in [lo, hi) that was not logged before millis; a slot that cannot be
+     * read is treated as not logged before it, which only makes the caller start its scan a little earlier
+     */
+    private long lowerBound(long lo, long hi, long millis) {
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            Slot slot = slotAt(mid);
+            if (slot != null && slot.millis < millis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @EFFECTS: returns an iterator over a snapshot of the retained events, oldest first
+     */
+    @Override
+    public Iterator<Event> iterator() {
+        long end = tail.get().seq;
+        long start = Math.max(head, end - capacity);
+        return new SnapshotIterator(start, end);
+    }
+
+    // Represents an event together with the sequence number it was appended under and the time it was logged at
+    private static final class Slot {
+        private final long seq;
+        private final long millis;
+        private final Event event;
+
+        private Slot(long seq, long millis, Event event) {
+            this.seq = seq;
+            this.millis = millis;
+            this.event = event;
+        }
+    }
+
+    // Represents the next sequence number to claim and the time the one before it was logged at
+    private static final class Tail {
+        private final long seq;
+        private final long millis;
+
+        private Tail(long seq, long millis) {
+            this.seq = seq;
+            this.millis = millis;
+        }
+    }
+
+    // Represents an iterator over the sequence numbers [start, end) that skips slots overwritten in the meantime
+    private final class SnapshotIterator implements Iterator<Event> {
+        private final long end;
+        private long next;
+        private Event pending;
+
+        private SnapshotIterator(long start, long end) {
+            this.next = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending == null && next < end) {
+                pending = eventAt(next);
+                next++;
+            }
+            return pending != null;
+        }
+
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Event e = pending;
+            pending = null;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package model.event;
+
+// Represents a destination that receives every event as it is logged. Sinks are called on the thread that logged the
+// event, so implementations must return quickly and must never block on I/O.
+public interface EventSink {
+
+    /**
+     * @REQUIRES: e is not null
+     * @EFFECTS: receives an event that was just added to the event log
+     */
+    void accept(Event e);
+}
@@ -0,0 +1,50 @@
+package model.event;
+
+// Represents the kinds of events the password manager logs. Each kind knows how to turn its payload into the
+// human-readable description, so the text is only built when the log is printed or exported. Kinds whose subject is
+// the name of an entry also have a description without it, for logs kept outside the encrypted vault.
+public enum EventType {
+    MESSAGE("%2$s"),
+    ENTRY_ADDED("Added entry #%d with name %s.", "Added entry #%d."),
+    ENTRY_REMOVED("Removed entry #%d with name %s.", "Removed entry #%d."),
+    ENTRIES_LOADED("Loaded entries from %2$s."),
+    ENTRIES_SAVED("Saved entries to %2$s."),
+    ENTRIES_IMPORTED("Imported %d entries from %s."),
+    ENTRIES_EXPORTED("Exported %d entries to %s."),
+    AUTHENTICATION_FAILED("Failed to authenticate password to load entries."),
+    LOG_CLEARED("Event log cleared.");
+
+    private final String pattern;
+    private final String redactedPattern;
+
+    EventType(String pattern) {
+        this(pattern, pattern);
+    }
+
+    EventType(String pattern, String redactedPattern) {
+        this.pattern = pattern;
+        this.redactedPattern = redactedPattern;
+    }
+
+    /**
+     * @EFFECTS: returns true if the subject of events of this type is the name of an entry
+     */
+    public boolean isAboutEntry() {
+        return !redactedPattern.equals(pattern);
+    }
+
+    /**
+     * @EFFECTS: returns the description of an event of this type with the given entry number and subject
+     */
+    public String format(int entryNumber, String subject) {
+        return String.format(pattern, entryNumber, subject);
+    }
+
+    /**
+     * @EFFECTS: returns the description of an event of this type with the given entry number and subject, leaving out
+     * the subject if it is the name of an entry
+     */
+    public String formatRedacted(int entryNumber, String subject) {
+        return String.format(redactedPattern, entryNumber, subject);
+    }
+}
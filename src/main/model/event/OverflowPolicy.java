@@ -0,0 +1,7 @@
+package model.event;
+
+// Represents what a bounded event log does with a new event once it has reached its capacity
+public enum OverflowPolicy {
+    OVERWRITE_OLDEST,
+    DROP_NEWEST
+}
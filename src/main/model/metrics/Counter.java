@@ -0,0 +1,47 @@
+package model.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents a named, lock-free counter
+public class Counter {
+    private final String name;
+    private final LongAdder value;
+
+    /**
+     * @EFFECTS: creates a counter with the given name starting at 0
+     */
+    Counter(String name) {
+        this.name = name;
+        value = new LongAdder();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: adds amount to the counter if metrics are enabled
+     */
+    public void add(long amount) {
+        if (Metrics.isEnabled()) {
+            value.add(amount);
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: adds one to the counter if metrics are enabled
+     */
+    public void increment() {
+        add(1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getValue() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
@@ -0,0 +1,28 @@
+package model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Represents a flight recorder event for deriving a Keyset from a master password
+@Name("safepass.KeyDerivation")
+@Label("Key Derivation")
+@Category({"SafePass", "Crypto"})
+@Description("Deriving the vault key from the master password")
+public class KeyDerivationEvent extends jdk.jfr.Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: ends the event and commits it with the given payload if the event is enabled
+     */
+    public void finish(String algorithm) {
+        end();
+        if (shouldCommit()) {
+            this.algorithm = algorithm;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package model.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents the registry of the timers and counters on the hot paths of the password manager. Timers and counters are
+// static so call sites reach them without a lookup. When metrics are disabled, starting a timer returns 0 and stopping
+// it or bumping a counter does nothing, so the only cost left is reading one volatile flag. Metrics are enabled unless
+// the safepass.metrics system property is set to false.
+public final class Metrics {
+    private static final List<Timer> TIMERS = new ArrayList<>();
+    private static final List<Counter> COUNTERS = new ArrayList<>();
+
+    public static final Timer KEYSET_DERIVATION = timer("keyset.derivation");
+    public static final Timer FIELD_ENCRYPT = timer("field.encrypt");
+    public static final Timer FIELD_DECRYPT = timer("field.decrypt");
+    public static final Timer ENTRY_DECRYPT = timer("entry.decrypt");
+    public static final Timer PASSWORD_SCORE = timer("password.score");
+    public static final Timer JSON_PARSE = timer("json.parse");
+    public static final Timer JSON_SERIALIZE = timer("json.serialize");
+    public static final Timer FILE_READ = timer("file.read");
+    public static final Timer FILE_WRITE = timer("file.write");
+    public static final Counter BYTES_READ = counter("bytes.read");
+    public static final Counter BYTES_WRITTEN = counter("bytes.written");
+    public static final Counter FAILED_AUTHENTICATIONS = counter("authentication.failed");
+
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getProperty("safepass.metrics", "true"));
+
+    private Metrics() {
+    }
+
+    private static Timer timer(String name) {
+        Timer t = new Timer(name);
+        TIMERS.add(t);
+        return t;
+    }
+
+    private static Counter counter(String name) {
+        Counter c = new Counter(name);
+        COUNTERS.add(c);
+        return c;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: turns recording on or off; values recorded so far are kept
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    public static List<Timer> getTimers() {
+        return Collections.unmodifiableList(TIMERS);
+    }
+
+    public static List<Counter> getCounters() {
+        return Collections.unmodifiableList(COUNTERS);
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: resets every timer and counter to zero
+     */
+    public static void reset() {
+        TIMERS.forEach(Timer::reset);
+        COUNTERS.forEach(Counter::reset);
+    }
+
+    /**
+     * @EFFECTS: returns a human-readable table of every timer and counter
+     */
+    public static String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-22s %10s %12s %12s %12s%n", "timer", "count", "total ms", "mean us", "max us"));
+        for (Timer t : TIMERS) {
+            long n = t.getCount();
+            sb.append(String.format("%-22s %10d %12.1f %12.1f %12.1f%n", t.getName(), n,
+                    t.getTotalNanos() / 1e6, n == 0 ? 0.0 : t.getTotalNanos() / 1e3 / n, t.getMaxNanos() / 1e3));
+        }
+        sb.append(String.format("%n%-22s %10s%n", "counter", "value"));
+        for (Counter c : COUNTERS) {
+            sb.append(String.format("%-22s %10d%n", c.getName(), c.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @EFFECTS: returns every timer and counter as a JSON document
+     */
+    public static String toJson() throws JsonProcessingException {
+        Map<String, Object> timers = new LinkedHashMap<>();
+        TIMERS.forEach(t -> timers.put(t.getName(), t.snapshot()));
+        Map<String, Long> counters = new LinkedHashMap<>();
+        COUNTERS.forEach(c -> counters.put(c.getName(), c.getValue()));
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("enabled", enabled);
+        root.put("timers", timers);
+        root.put("counters", counters);
+        return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(root);
+    }
+}
@@ -0,0 +1,34 @@
+package model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import me.gosimple.nbvcxz.scoring.Result;
+
+// Represents a flight recorder event for one nbvcxz strength estimate. The password itself is never recorded.
+@Name("safepass.PasswordEstimate")
+@Label("Password Estimate")
+@Category({"SafePass", "Scoring"})
+@Description("Estimating the strength of one password")
+public class PasswordEstimateEvent extends jdk.jfr.Event {
+    @Label("Password Length")
+    int passwordLength;
+
+    @Label("Score")
+    int score;
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: ends the event and commits it with the length and score of the estimate if the event is enabled; the
+     * score is only computed when the event is committed
+     */
+    public void finish(int passwordLength, Result result) {
+        end();
+        if (shouldCommit()) {
+            this.passwordLength = passwordLength;
+            this.score = result.getBasicScore();
+            commit();
+        }
+    }
+}
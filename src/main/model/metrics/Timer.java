@@ -0,0 +1,92 @@
+package model.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents a named timer that accumulates how many times an operation ran, its total duration and its slowest run.
+// Recording is lock-free, so it can be used from the load and save threads at the same time.
+public class Timer {
+    private final String name;
+    private final LongAdder count;
+    private final LongAdder totalNanos;
+    private final AtomicLong maxNanos;
+
+    /**
+     * @EFFECTS: creates a timer with the given name and no recorded runs
+     */
+    Timer(String name) {
+        this.name = name;
+        count = new LongAdder();
+        totalNanos = new LongAdder();
+        maxNanos = new AtomicLong();
+    }
+
+    /**
+     * @EFFECTS: returns the current time to pass to stop, or 0 if metrics are disabled
+     */
+    public long start() {
+        return Metrics.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: records the time elapsed since start returned startNanos; does nothing if startNanos is 0
+     */
+    public void stop(long startNanos) {
+        if (startNanos != 0) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * @REQUIRES: nanos >= 0
+     * @MODIFIES: this
+     * @EFFECTS: records one run that took nanos nanoseconds
+     */
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: forgets every recorded run
+     */
+    void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /**
+     * @EFFECTS: returns the count, total, mean and max of this timer keyed by name
+     */
+    Map<String, Long> snapshot() {
+        long n = getCount();
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("count", n);
+        values.put("totalNanos", getTotalNanos());
+        values.put("meanNanos", n == 0 ? 0 : getTotalNanos() / n);
+        values.put("maxNanos", getMaxNanos());
+        return values;
+    }
+}
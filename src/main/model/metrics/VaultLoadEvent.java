@@ -0,0 +1,39 @@
+package model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Represents a flight recorder event spanning a whole vault load: reading the file, parsing it and decrypting it.
+// The individual phases are recorded as VaultPhaseEvents inside it.
+@Name("safepass.VaultLoad")
+@Label("Vault Load")
+@Category({"SafePass", "Vault"})
+@Description("Reading, parsing and decrypting a vault file")
+public class VaultLoadEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Entry Count")
+    int entryCount;
+
+    @Label("Byte Size")
+    @DataAmount
+    long byteSize;
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: ends the event and commits it with the given payload if the event is enabled
+     */
+    public void finish(String path, int entryCount, long byteSize) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            this.entryCount = entryCount;
+            this.byteSize = byteSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Represents a flight recorder event for one phase of a vault load or save, such as read, parse or decrypt
+@Name("safepass.VaultPhase")
+@Label("Vault Phase")
+@Category({"SafePass", "Vault"})
+@Description("One phase of loading or saving a vault")
+public class VaultPhaseEvent extends jdk.jfr.Event {
+    public static final String READ = "read";
+    public static final String PARSE = "parse";
+    public static final String DECRYPT = "decrypt";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Entry Count")
+    int entryCount;
+
+    @Label("Byte Size")
+    @DataAmount
+    long byteSize;
+
+    /**
+     * @EFFECTS: creates and begins an event for the given phase
+     */
+    public static VaultPhaseEvent start(String phase) {
+        VaultPhaseEvent event = new VaultPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: ends the event and commits it with the given payload if the event is enabled
+     */
+    public void finish(int entryCount, long byteSize) {
+        end();
+        if (shouldCommit()) {
+            this.entryCount = entryCount;
+            this.byteSize = byteSize;
+            commit();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package model.security;
 
+import model.metrics.Metrics;
+
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 
@@ -24,9 +26,12 @@ public class Decryptor {
     public String decrypt(String field, byte[] salt, Keyset keyset)
             throws GeneralSecurityException,
             GeneralSecurityException {
+        long start = Metrics.FIELD_DECRYPT.start();
         byte[] cipherBytes = ByteConvertor.stringToBytes(field);
         byte[] decryptedBytes = keyset.decrypt(cipherBytes, salt);
-        return new String(decryptedBytes, StandardCharsets.UTF_8);
+        String decrypted = new String(decryptedBytes, StandardCharsets.UTF_8);
+        Metrics.FIELD_DECRYPT.stop(start);
+        return decrypted;
     }
 
 }
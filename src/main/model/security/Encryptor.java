@@ -1,9 +1,12 @@
 package model.security;
 
+import model.metrics.Metrics;
+
 import java.security.SecureRandom;
 
 public class Encryptor {
     private static Encryptor encryptor;
+    private final SecureRandom random = new SecureRandom();
 
     private Encryptor() {
     }
@@ -17,16 +20,18 @@ public class Encryptor {
     }
 
     public String encrypt(String plaintext, Keyset keySet, byte[] salt) {
+        long start = Metrics.FIELD_ENCRYPT.start();
         byte[] cipherBytes = keySet.encrypt(plaintext, salt);
-        return ByteConvertor.bytesToString(cipherBytes);
+        String encrypted = ByteConvertor.bytesToString(cipherBytes);
+        Metrics.FIELD_ENCRYPT.stop(start);
+        return encrypted;
     }
 
 
     /**
-     * @EFFECTS: creates an array of 16 random bytes which will be used as the salt
+     * @EFFECTS: creates an array of 16 random bytes which will be used as the salt; safe to call from several threads
      */
     public byte[] createSalt() {
-        SecureRandom random = new SecureRandom();
         byte[] saltBytes = new byte[16];
         random.nextBytes(saltBytes);
         return saltBytes;
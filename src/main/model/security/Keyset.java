@@ -2,14 +2,20 @@ package model.security;
 
 import com.google.crypto.tink.aead.AeadConfig;
 import com.google.crypto.tink.subtle.AesGcmJce;
+import model.metrics.KeyDerivationEvent;
+import model.metrics.Metrics;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 
 // Represents a custom Keyset object to use with the Tink library that is connected to a string (essentially the master
-// password of the file)
+// password of the file), or to a key derived from it with a salted, slow key derivation function
 public class Keyset {
+    public static final String KDF_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int KEY_BITS = 256;
 
     private AesGcmJce aead;
     private ByteConvertor bc;
@@ -20,12 +26,45 @@ public class Keyset {
      */
     public Keyset(String password, String algorithm)
             throws GeneralSecurityException {
+        long start = Metrics.KEYSET_DERIVATION.start();
+        KeyDerivationEvent event = new KeyDerivationEvent();
+        event.begin();
         bc = new ByteConvertor();
         AeadConfig.register();
         MessageDigest messageDigest = MessageDigest.getInstance(algorithm);
         messageDigest.update(password.getBytes(StandardCharsets.UTF_8));
         byte[] key128Bit = convertTo128Bits(messageDigest.digest());
         aead = new AesGcmJce(key128Bit);
+        event.finish(algorithm);
+        Metrics.KEYSET_DERIVATION.stop(start);
+    }
+
+    /**
+     * @REQUIRES: key has 16 or 32 elements
+     * @EFFECTS: creates a keyset that encrypts with key
+     */
+    public Keyset(byte[] key) throws GeneralSecurityException {
+        bc = new ByteConvertor();
+        AeadConfig.register();
+        aead = new AesGcmJce(key);
+    }
+
+    /**
+     * @REQUIRES: iterations > 0
+     * @EFFECTS: returns the 256-bit key that KDF_ALGORITHM derives from password, salt and iterations
+     */
+    public static byte[] deriveKey(String password, byte[] salt, int iterations) throws GeneralSecurityException {
+        long start = Metrics.KEYSET_DERIVATION.start();
+        KeyDerivationEvent event = new KeyDerivationEvent();
+        event.begin();
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(KDF_ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+            event.finish(KDF_ALGORITHM);
+            Metrics.KEYSET_DERIVATION.stop(start);
+        }
     }
 
     /**
@@ -0,0 +1,87 @@
+package model.security;
+
+// Represents the MD4 message digest (RFC 1320). The JDK does not offer MD4 through its public providers, but Windows
+// NTLM password hashes are MD4 of the UTF-16LE password, and breach corpora are published in that form. MD4 is broken
+// and must not be used for anything but looking up such hashes.
+public class Md4 {
+    private static final int[] ROUND_2_ORDER = {0, 4, 8, 12, 1, 5, 9, 13, 2, 6, 10, 14, 3, 7, 11, 15};
+    private static final int[] ROUND_3_ORDER = {0, 8, 4, 12, 2, 10, 6, 14, 1, 9, 5, 13, 3, 11, 7, 15};
+    private static final int[][] SHIFTS = {{3, 7, 11, 19}, {3, 5, 9, 13}, {3, 9, 11, 15}};
+
+    private Md4() {
+    }
+
+    /**
+     * @REQUIRES: message is not null
+     * @EFFECTS: returns the 16 byte MD4 digest of message
+     */
+    public static byte[] digest(byte[] message) {
+        int[] state = {0x67452301, 0xefcdab89, 0x98badcfe, 0x10325476};
+        byte[] padded = pad(message);
+        int[] x = new int[16];
+        for (int offset = 0; offset < padded.length; offset += 64) {
+            for (int i = 0; i < 16; i++) {
+                x[i] = littleEndianInt(padded, offset + 4 * i);
+            }
+            compress(state, x);
+        }
+        byte[] digest = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            digest[i] = (byte) (state[i / 4] >>> (8 * (i % 4)));
+        }
+        return digest;
+    }
+
+    /**
+     * @EFFECTS: returns message followed by a one bit, zeros up to 56 bytes past a multiple of 64, and the bit length
+     * of message as a little-endian 64-bit number
+     */
+    private static byte[] pad(byte[] message) {
+        int length = ((message.length + 8) / 64 + 1) * 64;
+        byte[] padded = new byte[length];
+        System.arraycopy(message, 0, padded, 0, message.length);
+        padded[message.length] = (byte) 0x80;
+        long bits = (long) message.length * 8;
+        for (int i = 0; i < 8; i++) {
+            padded[length - 8 + i] = (byte) (bits >>> (8 * i));
+        }
+        return padded;
+    }
+
+    private static int littleEndianInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16
+                | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    /**
+     * @MODIFIES: state
+     * @EFFECTS: mixes the 16 words of one block into state
+     */
+    private static void compress(int[] state, int[] x) {
+        int a = state[0];
+        int b = state[1];
+        int c = state[2];
+        int d = state[3];
+        for (int i = 0; i < 48; i++) {
+            int round = i / 16;
+            int step = i % 16;
+            int t;
+            if (round == 0) {
+                t = a + ((b & c) | (~b & d)) + x[step];
+            } else if (round == 1) {
+                t = a + ((b & c) | (b & d) | (c & d)) + x[ROUND_2_ORDER[step]] + 0x5a827999;
+            } else {
+                t = a + (b ^ c ^ d) + x[ROUND_3_ORDER[step]] + 0x6ed9eba1;
+            }
+            t = Integer.rotateLeft(t, SHIFTS[round][step % 4]);
+            a = d;
+            d = c;
+            c = b;
+            b = t;
+        }
+        state[0] += a;
+        state[1] += b;
+        state[2] += c;
+        state[3] += d;
+    }
+}
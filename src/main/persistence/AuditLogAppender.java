@@ -0,0 +1,234 @@
+package persistence;
+
+import model.event.Event;
+import model.event.EventSink;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents an appender that persists logged events to a rotating audit file. Events are queued without blocking and
+// written in batches by a background thread, so the add, remove and save paths never wait on the disk. When the queue
+// is full, new events are counted as dropped instead of stalling the caller. The file is not encrypted, so events are
+// written without the names of the entries they are about. A file is as old as the first event in it, so a log that is
+// reopened often still rotates by age.
+public class AuditLogAppender implements EventSink, Closeable {
+    public static final String DEFAULT_STORE = "./data/audit.log";
+    private static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+    private static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int DEFAULT_MAX_FILES = 5;
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int MAX_BATCH = 512;
+    private static final long POLL_MILLIS = 200;
+
+    private final Path destination;
+    private final long maxBytes;
+    private final long maxAgeMillis;
+    private final int maxFiles;
+    private final BlockingQueue<Event> queue;
+    private final LongAdder dropped;
+    private final Thread writerThread;
+    private volatile boolean running;
+    private BufferedWriter writer;
+    private long bytesWritten;
+    private long openedAt;
+
+    /**
+     * @EFFECTS: constructs an appender writing to destination with the default rotation limits
+     */
+    public AuditLogAppender(String destination) {
+        this(destination, DEFAULT_MAX_BYTES, DEFAULT_MAX_AGE_MILLIS, DEFAULT_MAX_FILES);
+    }
+
+    /**
+     * @REQUIRES: maxBytes > 0, maxAgeMillis > 0, maxFiles >= 0
+     * @EFFECTS: constructs an appender writing to destination; the file is rotated once it grows past maxBytes or its
+     * first event is more than maxAgeMillis old, and at most maxFiles rotated files are kept
+     */
+    public AuditLogAppender(String destination, long maxBytes, long maxAgeMillis,
+                            int maxFiles) {
+        this.destination = Paths.get(destination);
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxFiles = maxFiles;
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        dropped = new LongAdder();
+        writerThread = new Thread(this::drainLoop, "safepass-audit");
+        writerThread.setDaemon(true);
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: starts the background writer thread
+     */
+    public void start() {
+        running = true;
+        writerThread.start();
+    }
+
+    /**
+     * @EFFECTS: queues e for writing; drops it if the queue is full
+     */
+    @Override
+    public void accept(Event e) {
+        if (!queue.offer(e)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the number of events that were not written because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: writes every queued event, then stops the writer thread and closes the audit file
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<Event> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                Event first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeWriter();
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: appends one line per event to the audit file, rotating it first if needed; the batch is lost if the
+     * file cannot be written
+     */
+    private void writeBatch(List<Event> batch) {
+        try {
+            rotateIfNeeded();
+            StringBuilder sb = new StringBuilder();
+            for (Event e : batch) {
+                sb.append(e.getDate().toInstant()).append(' ')
+                        .append(e.getRedactedDescription()).append('\n');
+            }
+            String lines = sb.toString();
+            writer.write(lines);
+            writer.flush();
+            bytesWritten += lines.getBytes(StandardCharsets.UTF_8).length;
+        } catch (IOException e) {
+            dropped.add(batch.size());
+            closeWriter();
+        }
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        if (writer == null) {
+            openWriter();
+        }
+        if (bytesWritten >= maxBytes || System.currentTimeMillis() - openedAt >= maxAgeMillis) {
+            closeWriter();
+            rotate();
+            openWriter();
+        }
+    }
+
+    /**
+     * @EFFECTS: shifts audit.log.(i) to audit.log.(i + 1), discarding the oldest, then moves the current file to
+     * audit.log.1
+     */
+    private void rotate() throws IOException {
+        if (maxFiles == 0) {
+            Files.deleteIfExists(destination);
+            return;
+        }
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (Files.exists(destination)) {
+            Files.move(destination, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path rotated(int i) {
+        return destination.resolveSibling(destination.getFileName() + "." + i);
+    }
+
+    private void openWriter() throws IOException {
+        Path parent = destination.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        bytesWritten = Files.size(destination);
+        openedAt = startedAt();
+    }
+
+    /**
+     * @EFFECTS: returns the time of the first event in the audit file, or its creation time if that line cannot be
+     * read, or now if the file is empty
+     */
+    private long startedAt() throws IOException {
+        if (bytesWritten == 0) {
+            return System.currentTimeMillis();
+        }
+        try (BufferedReader in = Files.newBufferedReader(destination, StandardCharsets.UTF_8)) {
+            String first = in.readLine();
+            int space = first == null ? -1 : first.indexOf(' ');
+            if (space > 0) {
+                return Instant.parse(first.substring(0, space)).toEpochMilli();
+            }
+        } catch (DateTimeParseException e) {
+            // not written by this appender; fall back to the file system
+        }
+        return Files.readAttributes(destination, BasicFileAttributes.class).creationTime().toMillis();
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // nothing left to do with a file we cannot close
+            }
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package persistence;
+
+import model.entries.File;
+import model.entries.FileListener;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Represents the autosave policy for a file. Every change restarts a short countdown, so a burst of edits is written
+// once after the user pauses, and a change that keeps being postponed is still written once the maximum delay has
+// passed. Nothing is written when the file has not changed since it was last saved, and at most one autosave is in
+// flight at a time; changes made while it runs are picked up by the next one.
+public class AutosaveScheduler implements FileListener, Closeable {
+    private final File file;
+    private final long delayNanos;
+    private final long maxDelayNanos;
+    private final Saver saver;
+    private final ScheduledExecutorService timer;
+    private ScheduledFuture<?> pending;
+    private long firstChangeAt;
+    private boolean dirtySinceScheduled;
+    private boolean saving;
+    private long savedCount;
+
+    // Represents the action that starts writing the file to disk
+    public interface Saver {
+
+        /**
+         * @EFFECTS: starts saving the file off the calling thread and returns true, or returns false if it cannot be
+         * saved right now; the saver must call markSaved or saveFailed once a started save is over
+         */
+        boolean save(long modificationCount);
+    }
+
+    /**
+     * @REQUIRES: 0 < delayMillis <= maxDelayMillis
+     * @EFFECTS: creates a scheduler that saves file through saver delayMillis after the last change, but no later than
+     * maxDelayMillis after the first unsaved change; the file starts out as clean
+     */
+    public AutosaveScheduler(File file, long delayMillis, long maxDelayMillis,
+                             Saver saver) {
+        this.file = file;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.saver = saver;
+        savedCount = file.getModificationCount();
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "safepass-autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: restarts the countdown to the next save, unless a save is running or this has been closed
+     */
+    @Override
+    public synchronized void entriesChanged() {
+        if (timer.isShutdown()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (!dirtySinceScheduled) {
+            dirtySinceScheduled = true;
+            firstChangeAt = now;
+        }
+        if (!saving) {
+            schedule(now);
+        }
+    }
+
+    private void schedule(long now) {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        long fireAt = Math.min(now + delayNanos, firstChangeAt + maxDelayNanos);
+        pending = timer.schedule(this::fire, Math.max(0, fireAt - now), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: starts a save if the file changed since it was last saved. Neither the file nor the saver is called
+     * while this is locked, because the file calls entriesChanged while it is locked
+     */
+    private void fire() {
+        long count = file.getModificationCount();
+        synchronized (this) {
+            pending = null;
+            dirtySinceScheduled = false;
+            if (count == savedCount || saving) {
+                return;
+            }
+            saving = true;
+        }
+        if (!saver.save(count)) {
+            saveFailed();
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: records that the file was written as of modificationCount, whether by an autosave, a manual save or
+     * a load; schedules another save if changes were made in the meantime
+     */
+    public void markSaved(long modificationCount) {
+        long current = file.getModificationCount();
+        synchronized (this) {
+            savedCount = modificationCount;
+            saving = false;
+            if (current != savedCount && dirtySinceScheduled && !timer.isShutdown()) {
+                schedule(System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: records that a started save did not complete; the file stays dirty and is saved after the next change
+     */
+    public synchronized void saveFailed() {
+        saving = false;
+    }
+
+    /**
+     * @EFFECTS: returns true if the file has changed since it was last saved
+     */
+    public boolean isDirty() {
+        long current = file.getModificationCount();
+        synchronized (this) {
+            return current != savedCount;
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: cancels any pending autosave and stops the timer thread
+     */
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,297 @@
+package persistence;
+
+import model.analysis.BloomFilter;
+import model.entries.Entry;
+import model.entries.File;
+import model.security.Md4;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents a local corpus of breached password hashes, used to flag entries without any network access. The corpus
+// is a file of fixed-size SHA-1 or NTLM hashes sorted in ascending order, such as a converted download of Pwned
+// Passwords ordered by hash. It is memory-mapped and binary-searched, so only the pages a lookup touches are read. A
+// Bloom filter in front of it answers most lookups for passwords that are not in the corpus without touching the
+// mapping; the filter is built on the first open and saved next to the corpus as <corpus>.bloom. The saved filter is
+// written to a temporary file and moved into place, and one that cannot be read is rebuilt rather than trusted.
+public class BreachCorpus implements Closeable {
+    private static final int BLOOM_MAGIC = 0x53504246;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int BLOOM_HEADER_BYTES = Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+
+    private final HashType type;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long recordsPerChunk;
+    private final long size;
+    private final BloomFilter filter;
+
+    // Represents the kinds of hashes a corpus can hold
+    public enum HashType {
+        SHA1(20), NTLM(16);
+
+        private final int length;
+
+        HashType(int length) {
+            this.length = length;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * @EFFECTS: returns the hash of password that a corpus of this type holds
+         */
+        public byte[] hash(String password) {
+            if (this == NTLM) {
+                return Md4.digest(password.getBytes(StandardCharsets.UTF_16LE));
+            }
+            try {
+                return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-1 is not available", e);
+            }
+        }
+    }
+
+    /**
+     * @EFFECTS: opens the corpus of hashes of the given type stored at corpus, loading its Bloom filter or building and
+     * saving one if it is missing or older than the corpus; throws IOException if the corpus cannot be read or its
+     * size is not a whole number of hashes
+     */
+    public BreachCorpus(Path corpus, HashType type) throws IOException {
+        this.type = type;
+        this.channel = FileChannel.open(corpus, StandardOpenOption.READ);
+        try {
+            if (channel.size() % type.getLength() != 0) {
+                throw new IOException(corpus + " is not a list of " + type + " hashes");
+            }
+            size = channel.size() / type.getLength();
+            recordsPerChunk = Integer.MAX_VALUE / type.getLength();
+            chunks = new MappedByteBuffer[(int) ((size + recordsPerChunk - 1) / recordsPerChunk)];
+            for (int i = 0; i < chunks.length; i++) {
+                long first = i * recordsPerChunk;
+                long records = Math.min(recordsPerChunk, size - first);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * type.getLength(),
+                        records * type.getLength());
+            }
+            filter = loadFilter(corpus);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the filter saved next to corpus if it is up to date and intact, otherwise builds one from every
+     * hash and tries to save it
+     */
+    private BloomFilter loadFilter(Path corpus) throws IOException {
+        Path saved = Paths.get(corpus + ".bloom");
+        BloomFilter loaded = readSavedFilter(saved, corpus);
+        if (loaded != null) {
+            return loaded;
+        }
+        BloomFilter built = new BloomFilter(size, FALSE_POSITIVE_RATE);
+        byte[] hash = new byte[type.getLength()];
+        for (long i = 0; i < size; i++) {
+            built.add(read(i, hash));
+        }
+        saveFilter(built, saved);
+        return built;
+    }
+
+    /**
+     * @EFFECTS: returns the filter saved at saved, or null if there is none, it is older than corpus, it was built for
+     * a corpus of another size, or it cannot be read in full
+     */
+    private BloomFilter readSavedFilter(Path saved, Path corpus) {
+        try {
+            if (!Files.exists(saved)
+                    || Files.getLastModifiedTime(saved).compareTo(Files.getLastModifiedTime(corpus)) < 0) {
+                return null;
+            }
+            long maxWords = (Files.size(saved) - BLOOM_HEADER_BYTES) / Long.BYTES;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(saved)))) {
+                if (in.readInt() == BLOOM_MAGIC && in.readLong() == size) {
+                    return BloomFilter.read(in, maxWords);
+                }
+            }
+        } catch (IOException e) {
+            // a damaged or half-written filter is rebuilt
+        }
+        return null;
+    }
+
+    /**
+     * @EFFECTS: tries to save filter to saved by writing a temporary file next to it and moving it into place, so a
+     * reader never sees a partly written filter
+     */
+    private void saveFilter(BloomFilter filter, Path saved) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(saved.toAbsolutePath().getParent(), saved.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(BLOOM_MAGIC);
+                out.writeLong(size);
+                filter.write(out);
+            }
+            Files.move(temp, saved, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the corpus may sit in a read-only location; the filter is rebuilt next time
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // left for the next save to replace
+            }
+        }
+    }
+
+    /**
+     * @MODIFIES: hash
+     * @EFFECTS: copies the index-th hash of the corpus into hash and returns it
+     */
+    private byte[] read(long index, byte[] hash) {
+        MappedByteBuffer chunk = chunks[(int) (index / recordsPerChunk)];
+        int offset = (int) (index % recordsPerChunk) * type.getLength();
+        for (int i = 0; i < hash.length; i++) {
+            hash[i] = chunk.get(offset + i);
+        }
+        return hash;
+    }
+
+    /**
+     * @REQUIRES: hash has the length of this corpus' hashes
+     * @EFFECTS: returns true if the corpus holds hash
+     */
+    public boolean contains(byte[] hash) {
+        if (!filter.mightContain(hash)) {
+            return false;
+        }
+        byte[] probe = new byte[hash.length];
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int comparison = compareUnsigned(read(mid, probe), hash);
+            if (comparison == 0) {
+                return true;
+            } else if (comparison < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int difference = (a[i] & 0xff) - (b[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @EFFECTS: returns true if password appears in the corpus
+     */
+    public boolean isBreached(String password) {
+        return contains(type.hash(password));
+    }
+
+    /**
+     * @EFFECTS: returns the entries of file whose password appears in the corpus, in file order; each distinct
+     * password is only looked up once
+     */
+    public List<Entry> findBreached(File file) {
+        Map<String, Boolean> seen = new HashMap<>();
+        List<Entry> breached = new ArrayList<>();
+        for (Entry entry : file.snapshot()) {
+            if (seen.computeIfAbsent(entry.getPasswordText(), this::isBreached)) {
+                breached.add(entry);
+            }
+        }
+        return breached;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @EFFECTS: closes the corpus file; the mapping is released once it is garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @EFFECTS: converts a text list of hexadecimal hashes, one per line and optionally followed by ":count" as in
+     * Pwned Passwords, into the binary form read by this class; throws IOException if a line is not a hash of the given
+     * type or the lines are not sorted
+     */
+    public static void convertHexList(BufferedReader in, OutputStream out, HashType type) throws IOException {
+        byte[] previous = null;
+        String line;
+        while ((line = in.readLine()) != null) {
+            String hex = line.split(":", 2)[0].trim();
+            if (hex.isEmpty()) {
+                continue;
+            }
+            byte[] hash = parseHex(hex, type);
+            if (previous != null && compareUnsigned(previous, hash) > 0) {
+                throw new IOException("Hashes are not sorted at " + hex);
+            }
+            out.write(hash);
+            previous = hash;
+        }
+    }
+
+    private static byte[] parseHex(String hex, HashType type) throws IOException {
+        if (hex.length() != type.getLength() * 2) {
+            throw new IOException(hex + " is not a " + type + " hash");
+        }
+        byte[] hash = new byte[type.getLength()];
+        for (int i = 0; i < hash.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IOException(hex + " is not a " + type + " hash");
+            }
+            hash[i] = (byte) (high << 4 | low);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,84 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents a streaming reader of comma-separated values as written by spreadsheet programs and other password
+// managers. Fields may be quoted with double quotes, in which case they can hold commas, line breaks and doubled
+// quotes. Only the row being read is held in memory.
+class CsvReader {
+    private static final int END = -1;
+
+    private final Reader reader;
+    private int next;
+
+    /**
+     * @EFFECTS: creates a reader of the rows in reader; reader should be buffered
+     */
+    CsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        this.next = reader.read();
+        // skip the byte order mark some spreadsheet programs write first
+        if (next == '\uFEFF') {
+            next = reader.read();
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: returns the fields of the next row, or null if there are no rows left
+     */
+    List<String> readRow() throws IOException {
+        if (next == END) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        while (true) {
+            if (next == '"' && field.length() == 0) {
+                readQuoted(field);
+            } else if (next == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                next = reader.read();
+            } else if (next == '\r' || next == '\n' || next == END) {
+                fields.add(field.toString());
+                skipLineBreak();
+                return fields;
+            } else {
+                field.append((char) next);
+                next = reader.read();
+            }
+        }
+    }
+
+    /**
+     * @REQUIRES: next is the opening quote of a field
+     * @MODIFIES: this, field
+     * @EFFECTS: appends the contents of the quoted field to field and stops after its closing quote
+     */
+    private void readQuoted(StringBuilder field) throws IOException {
+        next = reader.read();
+        while (next != END) {
+            if (next == '"') {
+                next = reader.read();
+                if (next != '"') {
+                    return;
+                }
+            }
+            field.append((char) next);
+            next = reader.read();
+        }
+    }
+
+    private void skipLineBreak() throws IOException {
+        if (next == '\r') {
+            next = reader.read();
+        }
+        if (next == '\n') {
+            next = reader.read();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package persistence;
+
+import model.entries.Entry;
+import model.entries.EntryCursor;
+import model.entries.File;
+import model.event.Event;
+import model.event.EventLog;
+import model.event.EventType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+// Represents an exporter of entries to a plaintext CSV file, which EntryImporter and other password managers can read,
+// or to an encrypted JSON vault protected by a separate export password. Entries are written through a buffered
+// stream one at a time, either a page at a time from an open file or straight out of the vault on disk, so an export
+// never holds a second copy of the whole vault. Plaintext exports are created readable by their owner only.
+public class EntryExporter {
+    public static final String CSV_HEADER = "name,url,username,password,notes";
+    private static final int PAGE_SIZE = 256;
+
+    /**
+     * @MODIFIES: destination
+     * @EFFECTS: writes the entries of file to destination as CSV and returns how many were written; throws IOException
+     * if destination cannot be written
+     */
+    public int exportCsv(File file, Path destination) throws IOException {
+        int count = 0;
+        try (Writer out = openPrivate(destination)) {
+            out.write(CSV_HEADER + "\n");
+            EntryCursor cursor = file.cursor(PAGE_SIZE);
+            while (cursor.hasNext()) {
+                List<Entry> page = cursor.nextPage();
+                for (Entry entry : page) {
+                    writeRow(out, entry);
+                }
+                count += page.size();
+            }
+        }
+        logExport(count, destination);
+        return count;
+    }
+
+    /**
+     * @MODIFIES: destination
+     * @EFFECTS: decrypts the vault read by vault one entry at a time and writes each to destination as CSV without
+     * loading the whole vault; returns how many were written. Throws GeneralSecurityException if masterPassword is
+     * wrong and IOException if the vault cannot be read or destination cannot be written
+     */
+    public int exportCsv(JsonReader vault, String masterPassword, Path destination)
+            throws IOException, GeneralSecurityException {
+        int count;
+        try (Writer out = openPrivate(destination)) {
+            out.write(CSV_HEADER + "\n");
+            count = vault.stream(masterPassword, entry -> writeRow(out, entry));
+        }
+        logExport(count, destination);
+        return count;
+    }
+
+    /**
+     * @MODIFIES: destination
+     * @EFFECTS: writes the entries of file to destination as a vault encrypted with exportPassword, which can be
+     * loaded like any other vault and has a header of its own, whatever destination held before; returns how many were
+     * written. Throws IOException if destination cannot be written
+     */
+    public int exportEncrypted(File file, String exportPassword, Path destination) throws IOException {
+        Files.deleteIfExists(destination);
+        JsonWriter writer = new JsonWriter(destination.toString());
+        writer.open();
+        try {
+            writer.write(file, exportPassword);
+        } finally {
+            writer.close();
+        }
+        int count = file.getSizeOfEntries();
+        logExport(count, destination);
+        return count;
+    }
+
+    private static void writeRow(Writer out, Entry entry) throws IOException {
+        out.write(quote(entry.getName()) + "," + quote(entry.getUrl()) + "," + quote(entry.getUsername()) + ","
+                + quote(entry.getPasswordText()) + "," + quote(entry.getNotes()) + "\n");
+    }
+
+    /**
+     * @EFFECTS: returns field as a CSV field, quoted if it holds a comma, a quote, a line break or surrounding spaces
+     */
+    static String quote(String field) {
+        if (field == null) {
+            return "";
+        }
+        boolean plain = field.equals(field.trim()) && field.chars().noneMatch(c -> c == ',' || c == '"'
+                || c == '\n' || c == '\r');
+        return plain ? field : "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * @EFFECTS: opens destination for writing, replacing its contents; where the file system allows it the file is
+     * made readable by its owner only before anything is written to it
+     */
+    private static Writer openPrivate(Path destination) throws IOException {
+        if (!Files.exists(destination)) {
+            Files.createFile(destination);
+        }
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(destination, PosixFilePermissions.fromString("rw-------"));
+        }
+        return Files.newBufferedWriter(destination, StandardCharsets.UTF_8,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private static void logExport(int count, Path destination) {
+        EventLog.getInstance().logEvent(new Event(EventType.ENTRIES_EXPORTED, count,
+                destination.getFileName().toString()));
+    }
+}
@@ -0,0 +1,309 @@
+package persistence;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import model.event.Event;
+import model.event.EventLog;
+import model.event.EventType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents an importer of entries exported from other password managers, either as CSV with a header row or as JSON.
+// Records are parsed one at a time on the calling thread and handed to worker threads in batches. The workers score
+// the passwords and create the salts, which is where nearly all of the time goes, and the finished batches are added
+// to the file in the order they were read. Only a few batches are in flight at once, so memory use does not grow with
+// the size of the export.
+public class EntryImporter {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private static final int NAME = 0;
+    private static final int USERNAME = 1;
+    private static final int PASSWORD = 2;
+    private static final int URL = 3;
+    private static final int NOTES = 4;
+    private static final Map<String, Integer> COLUMNS = new HashMap<>();
+
+    static {
+        putColumns(NAME, "name", "title");
+        putColumns(USERNAME, "username", "loginusername", "login", "user", "email");
+        putColumns(PASSWORD, "password", "loginpassword");
+        putColumns(URL, "url", "loginuri", "uri", "website");
+        putColumns(NOTES, "notes", "note", "extra", "comments");
+    }
+
+    private final int batchSize;
+    private final int threads;
+    private int imported;
+    private int skipped;
+
+    // Represents the formats an export can be in
+    public enum Format {
+        CSV, JSON;
+
+        /**
+         * @EFFECTS: returns the format of source judging by its extension; anything other than .json is read as CSV
+         */
+        public static Format of(Path source) {
+            return source.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    // Represents a source of records, each holding the name, username, password, url and notes of one entry
+    private interface RecordSource {
+
+        /**
+         * @EFFECTS: returns the next record, or null if there are none left
+         */
+        String[] next() throws IOException;
+    }
+
+    /**
+     * @EFFECTS: creates an importer that scores batches of DEFAULT_BATCH_SIZE records on one thread per processor
+     */
+    public EntryImporter() {
+        this(DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @REQUIRES: batchSize > 0, threads > 0
+     * @EFFECTS: creates an importer that scores batches of batchSize records on the given number of threads
+     */
+    public EntryImporter(int batchSize, int threads) {
+        this.batchSize = batchSize;
+        this.threads = threads;
+    }
+
+    private static void putColumns(int field, String... names) {
+        for (String name : names) {
+            COLUMNS.put(name, field);
+        }
+    }
+
+    /**
+     * @MODIFIES: this, target
+     * @EFFECTS: adds the entries exported to source to the end of target, reading it as JSON if its name ends in .json
+     * and as CSV otherwise; returns the number of entries imported. Records without a password are skipped. Throws
+     * IOException if source cannot be read or parsed; the batches added before the error stay in target
+     */
+    public int importFrom(Path source, File target) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            importFrom(reader, Format.of(source), target);
+        }
+        EventLog.getInstance().logEvent(new Event(EventType.ENTRIES_IMPORTED, imported,
+                source.getFileName().toString()));
+        return imported;
+    }
+
+    /**
+     * @MODIFIES: this, target
+     * @EFFECTS: adds the entries read from reader in the given format to the end of target and returns the number of
+     * entries imported
+     */
+    public int importFrom(Reader reader, Format format, File target) throws IOException {
+        imported = 0;
+        skipped = 0;
+        run(format == Format.JSON ? jsonRecords(reader) : csvRecords(reader), target);
+        return imported;
+    }
+
+    /**
+     * @EFFECTS: returns the number of records the last import skipped because they had no password
+     */
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * @MODIFIES: this, target
+     * @EFFECTS: turns the records of source into entries on the worker threads and adds them to target batch by batch
+     */
+    private void run(RecordSource source, File target) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<Entry>>> inFlight = new ArrayDeque<>();
+        try {
+            submitAll(source, workers, inFlight, target);
+            while (!inFlight.isEmpty()) {
+                commit(inFlight.poll(), target);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @MODIFIES: this, target
+     * @EFFECTS: submits the records of source to workers in batches, adding the oldest batch to target whenever more
+     * than two batches per worker are in flight
+     */
+    private void submitAll(RecordSource source, ExecutorService workers, Deque<Future<List<Entry>>> inFlight,
+                           File target) throws IOException {
+        List<String[]> batch = new ArrayList<>(batchSize);
+        for (String[] record = source.next(); record != null; record = source.next()) {
+            if (record[PASSWORD].isEmpty()) {
+                skipped++;
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() == batchSize) {
+                inFlight.add(submit(workers, batch));
+                batch = new ArrayList<>(batchSize);
+                while (inFlight.size() > 2 * threads) {
+                    commit(inFlight.poll(), target);
+                }
+            }
+        }
+        inFlight.add(submit(workers, batch));
+    }
+
+    private static Future<List<Entry>> submit(ExecutorService workers, List<String[]> batch) {
+        return workers.submit(() -> {
+            List<Entry> entries = new ArrayList<>(batch.size());
+            for (String[] record : batch) {
+                Entry entry = new Entry(record[NAME], record[USERNAME], new Password(record[PASSWORD]), record[URL],
+                        record[NOTES]);
+                entry.getPassword().getStrengthSummary();
+                entries.add(entry);
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * @MODIFIES: this, target
+     * @EFFECTS: waits for batch to be scored and adds its entries to target
+     */
+    private void commit(Future<List<Entry>> batch, File target) throws IOException {
+        try {
+            List<Entry> entries = batch.get();
+            if (!entries.isEmpty()) {
+                target.addEntries(entries);
+                imported += entries.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to import entry", e.getCause());
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the records of a CSV export whose first row names the columns; columns that are not
+     * recognized are ignored
+     */
+    private RecordSource csvRecords(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRow();
+        int[] fields = new int[header == null ? 0 : header.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = COLUMNS.getOrDefault(normalize(header.get(i)), -1);
+        }
+        return () -> {
+            List<String> row = csv.readRow();
+            if (row == null) {
+                return null;
+            }
+            String[] record = {"", "", "", "", ""};
+            for (int i = 0; i < fields.length && i < row.size(); i++) {
+                if (fields[i] >= 0) {
+                    record[fields[i]] = row.get(i);
+                }
+            }
+            return nameIfMissing(record);
+        };
+    }
+
+    private static String normalize(String column) {
+        return column.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+    }
+
+    /**
+     * @EFFECTS: returns the records of a JSON export, which is either an array of items or an object holding one
+     * under "items" or "entries"; login details may sit on the item itself or in a nested "login" object
+     */
+    private RecordSource jsonRecords(Reader reader) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        JsonParser parser = mapper.getFactory().createParser(reader);
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+            findItems(parser);
+        } else if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected a list of entries");
+        }
+        return () -> {
+            JsonToken token = parser.nextToken();
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token == JsonToken.START_OBJECT) {
+                    return toRecord(mapper.readTree(parser));
+                }
+                parser.skipChildren();
+                token = parser.nextToken();
+            }
+            return null;
+        };
+    }
+
+    /**
+     * @MODIFIES: parser
+     * @EFFECTS: moves parser to the start of the array of items inside the current object
+     */
+    private static void findItems(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY
+                    && (field.equals("items") || field.equals("entries"))) {
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new IOException("Expected a list of entries under \"items\" or \"entries\"");
+    }
+
+    private static String[] toRecord(JsonNode item) {
+        JsonNode login = item.has("login") && item.get("login").isObject() ? item.get("login") : item;
+        String url = text(login, "url", "uri", "website");
+        if (url.isEmpty()) {
+            url = login.path("uris").path(0).path("uri").asText("");
+        }
+        String[] record = {text(item, "name", "title"), text(login, "username", "user", "email"),
+                text(login, "password"), url, text(item, "notes", "note", "extra")};
+        return nameIfMissing(record);
+    }
+
+    private static String text(JsonNode node, String... fields) {
+        for (String field : fields) {
+            JsonNode value = node.get(field);
+            if (value != null && value.isValueNode() && !value.isNull()) {
+                return value.asText();
+            }
+        }
+        return "";
+    }
+
+    private static String[] nameIfMissing(String[] record) {
+        if (record[NAME].isEmpty()) {
+            record[NAME] = record[URL].isEmpty() ? "Imported entry" : record[URL];
+        }
+        return record;
+    }
+}
@@ -1,12 +1,20 @@
 package persistence;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.entries.Entry;
 import model.entries.File;
+import model.entries.ProgressListener;
 import model.event.Event;
 import model.event.EventLog;
+import model.event.EventType;
+import model.metrics.Metrics;
+import model.metrics.VaultLoadEvent;
+import model.metrics.VaultPhaseEvent;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -14,12 +22,22 @@ import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 
-// Represents a reader that reads file object from stored JSON data
+// Represents a reader that reads file object from stored JSON data. The vault header is read and the master password
+// checked against it before anything else, so a wrong password costs a key derivation for each way the vault can be
+// unlocked and a few hundred bytes of reading; vaults without a header are checked by decrypting their first entry.
 public class JsonReader {
     private String source;
 
+    // Represents something that takes the entries of a vault as they are streamed out of it
+    public interface EntryHandler {
+
+        /**
+         * @EFFECTS: handles one decrypted entry
+         */
+        void accept(Entry entry) throws IOException;
+    }
+
     /**
      * @EFFECTS: constructs reader to read from source file
      */
@@ -33,59 +51,156 @@ public class JsonReader {
      */
     public File read(String masterPassword, String store)
             throws IOException, GeneralSecurityException {
-        String jsonData = readFile(source);
-        ObjectMapper mapper = new ObjectMapper();
+        File f = new File();
+        readInto(masterPassword, store, f, ProgressListener.NONE);
+        return f;
+    }
 
-        List<Entry> encryptedLoadedEntries =
-                mapper.readValue(jsonData, new TypeReference<List<Entry>>() {
-                });
-        List<Entry> loadedEntries = new ArrayList<>();
+    /**
+     * @MODIFIES: target
+     * @EFFECTS: replaces the entries of target with the ones stored in the source file once every one of them has been
+     * decrypted; listener is told after each entry. Throws GeneralSecurityException, leaving target untouched, if
+     * masterPassword is wrong or any entry cannot be decrypted, and IOException if an error occurs reading data from
+     * file
+     */
+    public void readInto(String masterPassword, String store, File target,
+                         ProgressListener listener)
+            throws IOException, GeneralSecurityException {
+        VaultLoadEvent loadEvent = new VaultLoadEvent();
+        loadEvent.begin();
+        String jsonData;
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            unlock(in, masterPassword);
+            jsonData = readFile(in);
+        }
+        List<Entry> encryptedLoadedEntries = parseEntries(jsonData);
         try {
-            decryptEntries(encryptedLoadedEntries, loadedEntries,
-                    masterPassword);
-            EventLog.getInstance()
-                    .logEvent(new Event("Loaded entries from workroom.json."));
+            decryptEntries(encryptedLoadedEntries, target, listener);
+            loadEvent.finish(source, encryptedLoadedEntries.size(),
+                    jsonData.length());
+            EventLog.getInstance().logEvent(new Event(EventType.ENTRIES_LOADED,
+                    Paths.get(source).getFileName().toString()));
             System.out.println("Loaded file from " + store);
         } catch (GeneralSecurityException e) {
-            EventLog.getInstance().logEvent(new Event(
-                    "Failed to authenticate password to load entries."));
-            throw new GeneralSecurityException("Bad password!");
+            throw authenticationFailed();
         }
+    }
 
-        return parseFile(loadedEntries);
+    /**
+     * @MODIFIES: in
+     * @EFFECTS: reads the vault header from in and sets the key entries are decrypted with; uses the key of vaults
+     * without a header if there is none. Throws GeneralSecurityException if the header rejects masterPassword
+     */
+    private static void unlock(BufferedReader in, String masterPassword)
+            throws IOException, GeneralSecurityException {
+        VaultHeader header = VaultHeader.read(in);
+        if (header == null) {
+            Entry.instantiateKeySet(masterPassword);
+            return;
+        }
+        try {
+            Entry.useKeySet(header.unlock(masterPassword));
+        } catch (GeneralSecurityException e) {
+            throw authenticationFailed();
+        }
+    }
+
+    /**
+     * @EFFECTS: records a failed authentication and returns the exception to throw for it
+     */
+    static GeneralSecurityException authenticationFailed() {
+        Metrics.FAILED_AUTHENTICATIONS.increment();
+        EventLog.getInstance().logEvent(new Event(EventType.AUTHENTICATION_FAILED));
+        return new GeneralSecurityException("Bad password!");
     }
 
     /**
-     * @EFFECTS: reads source file as string and returns it
+     * @EFFECTS: decrypts the entries stored in the source file one at a time, in order, and passes each to handler
+     * without keeping them; returns the number of entries. Throws GeneralSecurityException, before handler is called,
+     * if masterPassword is wrong, and IOException if an error occurs reading data from file
      */
-    private String readFile(String source) throws IOException {
+    public int stream(String masterPassword, EntryHandler handler)
+            throws IOException, GeneralSecurityException {
+        ObjectMapper mapper = new ObjectMapper();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8);
+             JsonParser parser = mapper.getFactory().createParser(in)) {
+            unlock(in, masterPassword);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a list of entries in " + source);
+            }
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                handler.accept(decryptStreamed(mapper.readValue(parser, Entry.class), count == 0));
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static Entry decryptStreamed(Entry encrypted, boolean first) throws GeneralSecurityException {
+        try {
+            return encrypted.decrypt();
+        } catch (GeneralSecurityException e) {
+            if (first) {
+                throw authenticationFailed();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @EFFECTS: reads the rest of the source file from in as string and returns it
+     */
+    private String readFile(BufferedReader in) throws IOException {
         StringBuilder contentBuilder = new StringBuilder();
+        long start = Metrics.FILE_READ.start();
+        VaultPhaseEvent phase = VaultPhaseEvent.start(VaultPhaseEvent.READ);
 
-        try (Stream<String> stream = Files.lines(Paths.get(source),
-                StandardCharsets.UTF_8)) {
-            stream.forEach(s -> contentBuilder.append(s));
+        String line;
+        while ((line = in.readLine()) != null) {
+            contentBuilder.append(line);
         }
 
+        Metrics.FILE_READ.stop(start);
+        phase.finish(0, contentBuilder.length());
+        if (Metrics.isEnabled()) {
+            Metrics.BYTES_READ.add(Files.size(Paths.get(source)));
+        }
         return contentBuilder.toString();
     }
 
-    private void decryptEntries(List<Entry> encryptedLoadedEntries,
-                                List<Entry> loadedEntries,
-                                String masterPassword)
-            throws GeneralSecurityException {
-        Entry.instantiateKeySet(masterPassword);
-        for (Entry e : encryptedLoadedEntries) {
-            loadedEntries.add(e.decrypt());
-        }
+    /**
+     * @EFFECTS: parses the still encrypted entries out of jsonData
+     */
+    private List<Entry> parseEntries(String jsonData) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        long start = Metrics.JSON_PARSE.start();
+        VaultPhaseEvent phase = VaultPhaseEvent.start(VaultPhaseEvent.PARSE);
+        List<Entry> entries =
+                mapper.readValue(jsonData, new TypeReference<List<Entry>>() {
+                });
+        phase.finish(entries.size(), jsonData.length());
+        Metrics.JSON_PARSE.stop(start);
+        return entries;
     }
 
     /**
-     * @EFFECTS: parses file from JSON object and returns it
+     * @MODIFIES: target
+     * @EFFECTS: decrypts the entries one by one and then gives them to target all at once, so that a wrong password or
+     * a damaged entry leaves target as it was rather than half loaded
      */
-    private File parseFile(List<Entry> loadedEntries) {
-        File f = new File();
-        f.setEntries(loadedEntries);
-        return f;
+    private void decryptEntries(List<Entry> encryptedLoadedEntries,
+                                File target, ProgressListener listener)
+            throws GeneralSecurityException {
+        VaultPhaseEvent phase = VaultPhaseEvent.start(VaultPhaseEvent.DECRYPT);
+        int total = encryptedLoadedEntries.size();
+        List<Entry> decrypted = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            decrypted.add(encryptedLoadedEntries.get(i).decrypt());
+            listener.onProgress(i + 1, total);
+        }
+        target.setEntries(decrypted);
+        phase.finish(total, 0);
     }
 
 }
@@ -1,17 +1,37 @@
 package persistence;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import model.entries.Entry;
 import model.entries.File;
+import model.entries.ProgressListener;
 import model.event.Event;
 import model.event.EventLog;
+import model.event.EventType;
+import model.metrics.Metrics;
+import model.metrics.VaultSaveEvent;
 
-import java.io.FileNotFoundException;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.util.List;
 
-// Represents a writer that writes JSON representation of a file object to file
+// Represents a writer that writes JSON representation of a file object to file, after a vault header line that lets a
+// reader check the master password before reading the entries. A vault saved over itself keeps its header, so its data
+// key and any recovery key stay as they were. The vault is written to a temporary file next to it, which then replaces
+// it in a single move, so a failed or interrupted save leaves the vault as it was
 public class JsonWriter {
+    private Path temp;
     private PrintWriter writer;
     private String destination;
+    private VaultHeader current;
 
     /**
      * @EFFECTS: constructs writer to write to destination file
@@ -22,37 +42,112 @@ public class JsonWriter {
 
     /**
      * @MODIFIES: this
-     * @EFFECTS: opens writer; throws FileNotFoundException if destination file cannot be opened for writing
+     * @EFFECTS: remembers the header of the vault already at destination, if any, and opens writer on a temporary
+     * file next to it; throws IOException if the temporary file cannot be created
      */
-    public void open() throws FileNotFoundException {
-        writer = new PrintWriter(destination);
+    public void open() throws IOException {
+        current = readCurrentHeader();
+        Path target = Paths.get(destination).toAbsolutePath();
+        temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        writer = new PrintWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8));
     }
 
     /**
-     * @MODIFIES: this
-     * @EFFECTS: writes JSON representation of file object to file
+     * @EFFECTS: returns the header of the vault at destination, or null if there is none or it cannot be read, in
+     * which case the vault gets a new one
+     */
+    private VaultHeader readCurrentHeader() {
+        if (!Files.exists(Paths.get(destination))) {
+            return null;
+        }
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(destination), StandardCharsets.UTF_8)) {
+            return VaultHeader.read(in);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @MODIFIES: this, the destination file
+     * @EFFECTS: writes JSON representation of file object to file; throws IOException if it could not be written
+     */
+    public void write(File f, String masterPassword) throws IOException {
+        write(f, masterPassword, ProgressListener.NONE);
+    }
+
+    /**
+     * @MODIFIES: this, the destination file
+     * @EFFECTS: writes JSON representation of the entries the file object holds right now to file, encrypting and
+     * writing one entry at a time so the whole document is never held in memory; listener is told after each entry.
+     * Throws IOException, leaving the file as it was, if masterPassword does not unlock the vault already there or the
+     * file could not be written
+     */
+    public void write(File f, String masterPassword, ProgressListener listener)
+            throws IOException {
+        VaultSaveEvent saveEvent = new VaultSaveEvent();
+        saveEvent.begin();
+        VaultHeader header = unlock(masterPassword, current);
+        List<Entry> entries = f.snapshot();
+        writer.println(header.toLine());
+        saveToFile(entries, listener);
+        writer.close();
+        long bytes = Files.size(temp);
+        Files.move(temp, Paths.get(destination), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Metrics.BYTES_WRITTEN.add(bytes);
+        saveEvent.finish(destination, entries.size(), bytes);
+        EventLog.getInstance().logEvent(new Event(EventType.ENTRIES_SAVED,
+                Paths.get(destination).getFileName().toString()));
+    }
+
+    /**
+     * @EFFECTS: returns the header to write for masterPassword, keeping current if masterPassword unlocks it, and sets
+     * the key entries are encrypted with
      */
-    public void write(File f, String masterPassword) {
-        Entry.instantiateKeySet(masterPassword);
-        String json = f.toJson();
-        saveToFile(json);
-        EventLog.getInstance()
-                .logEvent(new Event("Saved entries to workroom.json."));
+    private static VaultHeader unlock(String masterPassword, VaultHeader current) throws IOException {
+        try {
+            VaultHeader header = VaultHeader.forPassword(masterPassword, current);
+            Entry.useKeySet(header.unlock(masterPassword));
+            return header;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not derive the vault key", e);
+        }
     }
 
     /**
      * @MODIFIES: this
-     * @EFFECTS: writes string to file
+     * @EFFECTS: streams entries to file as a JSON array and flushes it
      */
-    private void saveToFile(String json) {
-        writer.print(json);
+    private void saveToFile(List<Entry> entries, ProgressListener listener)
+            throws IOException {
+        ObjectMapper mapper = new ObjectMapper()
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        long start = Metrics.JSON_SERIALIZE.start();
+        try (SequenceWriter sequence = mapper.writerWithDefaultPrettyPrinter()
+                .writeValuesAsArray(writer)) {
+            for (int i = 0; i < entries.size(); i++) {
+                sequence.write(entries.get(i));
+                listener.onProgress(i + 1, entries.size());
+            }
+        }
+        Metrics.JSON_SERIALIZE.stop(start);
+        start = Metrics.FILE_WRITE.start();
+        writer.flush();
+        Metrics.FILE_WRITE.stop(start);
+        if (writer.checkError()) {
+            throw new IOException("Unable to write to file: " + destination);
+        }
     }
 
     /**
      * @MODIFIES: this
-     * @EFFECTS: closes writer
+     * @EFFECTS: closes writer and removes the temporary file if it did not replace the destination file
      */
     public void close() {
         writer.close();
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            // nothing was lost; the leftover temporary file only takes up space
+        }
     }
 }
@@ -0,0 +1,384 @@
+package persistence;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import model.security.Keyset;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+// Represents the first line of a vault file. The entries are sealed with a random data key that belongs to the vault,
+// and the header holds that key once for every way of unlocking the vault, such as the master password or a recovery
+// key, each wrapped with a key derived from its secret. Opening a wrapped data key tells whether a secret is right
+// after reading only this line, and changing or adding a secret rewraps the data key without touching the entries.
+// Version 1 headers, where the key derived from the master password sealed the entries itself, and vaults written
+// before the header existed are still read. The most recently opened data key is kept for the rest of the process,
+// under a tag that does not reveal the secret, so saving a vault that was just loaded does not derive a key again.
+public class VaultHeader {
+    public static final String FORMAT = "safepass-vault";
+    public static final int VERSION = 2;
+    public static final String PASSWORD_LABEL = "password";
+    public static final int DEFAULT_ITERATIONS = 600_000;
+    static final int DIRECT_KEY_VERSION = 1;
+    static final int MAX_LENGTH = 4096;
+    private static final int SALT_LENGTH = 16;
+    private static final int DATA_KEY_LENGTH = 32;
+    private static final byte[] CHECK_TEXT = "safepass key check".getBytes(StandardCharsets.UTF_8);
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final byte[] TAG_KEY = randomBytes(32);
+    private static Unlocked last;
+
+    private final int version;
+    private final List<Slot> slots;
+
+    // Represents a header together with the data key it holds, and the tag of the secret it was last used with
+    private static class Unlocked {
+        private final VaultHeader header;
+        private final byte[] dataKey;
+        private final Keyset keyset;
+        private final byte[] tag;
+
+        Unlocked(VaultHeader header, byte[] dataKey, byte[] tag) throws GeneralSecurityException {
+            this.header = header;
+            this.dataKey = dataKey;
+            this.keyset = new Keyset(dataKey);
+            this.tag = tag;
+        }
+    }
+
+    // Represents one way of unlocking a vault: the key derived from a secret with the salt and iteration count of the
+    // slot opens the wrapped data key. In a version 1 header the derived key is the data key and wraps a fixed text
+    static class Slot {
+        private final String label;
+        private final String kdf;
+        private final int iterations;
+        private final byte[] salt;
+        private final byte[] wrapped;
+
+        /**
+         * @EFFECTS: creates a slot read from a vault header; throws IOException if it is not a slot this version reads
+         */
+        @JsonCreator
+        Slot(@JsonProperty("label") String label,
+             @JsonProperty("kdf") String kdf,
+             @JsonProperty("iterations") int iterations,
+             @JsonProperty("salt") byte[] salt,
+             @JsonProperty("wrapped") byte[] wrapped) throws IOException {
+            if (label == null || !Keyset.KDF_ALGORITHM.equals(kdf) || iterations <= 0 || salt == null
+                    || wrapped == null) {
+                throw new IOException("Unsupported vault header");
+            }
+            this.label = label;
+            this.kdf = kdf;
+            this.iterations = iterations;
+            this.salt = salt;
+            this.wrapped = wrapped;
+        }
+
+        private Slot(String label, int iterations, byte[] salt, byte[] wrapped) {
+            this.label = label;
+            this.kdf = Keyset.KDF_ALGORITHM;
+            this.iterations = iterations;
+            this.salt = salt;
+            this.wrapped = wrapped;
+        }
+
+        /**
+         * @EFFECTS: returns a slot labelled label that opens dataKey with secret, using a fresh salt and the iteration
+         * count of the safepass.kdf.iterations property
+         */
+        static Slot wrap(String label, String secret, byte[] dataKey) throws GeneralSecurityException {
+            int iterations = Integer.getInteger("safepass.kdf.iterations", DEFAULT_ITERATIONS);
+            byte[] salt = randomBytes(SALT_LENGTH);
+            Keyset keyset = new Keyset(Keyset.deriveKey(secret, salt, iterations));
+            byte[] wrapped = keyset.encrypt(Base64.getEncoder().encodeToString(dataKey),
+                    associatedData(VERSION, label, iterations, salt));
+            if (wrapped == null) {
+                throw new GeneralSecurityException("Could not wrap the data key");
+            }
+            return new Slot(label, iterations, salt, wrapped);
+        }
+
+        /**
+         * @EFFECTS: returns the data key that secret opens in a header of the given version; throws
+         * GeneralSecurityException if secret is not the secret of this slot or the slot was altered
+         */
+        byte[] open(String secret, int version) throws GeneralSecurityException {
+            byte[] key = Keyset.deriveKey(secret, salt, iterations);
+            byte[] opened = new Keyset(key).decrypt(wrapped, associatedData(version, label, iterations, salt));
+            if (version != DIRECT_KEY_VERSION) {
+                return Base64.getDecoder().decode(opened);
+            }
+            if (!Arrays.equals(CHECK_TEXT, opened)) {
+                throw new GeneralSecurityException("Bad password!");
+            }
+            return key;
+        }
+
+        private boolean sameAs(Slot other) {
+            return label.equals(other.label) && iterations == other.iterations && Arrays.equals(salt, other.salt)
+                    && Arrays.equals(wrapped, other.wrapped);
+        }
+
+        @JsonGetter("label")
+        String getLabel() {
+            return label;
+        }
+
+        @JsonGetter("kdf")
+        String getKdf() {
+            return kdf;
+        }
+
+        @JsonGetter("iterations")
+        int getIterations() {
+            return iterations;
+        }
+
+        @JsonGetter("salt")
+        byte[] getSalt() {
+            return salt;
+        }
+
+        @JsonGetter("wrapped")
+        byte[] getWrapped() {
+            return wrapped;
+        }
+    }
+
+    /**
+     * @EFFECTS: creates a header read from a vault file; a version 1 header has the settings of its only slot, the
+     * master password, at the top level. Throws IOException if it is not a header this version reads
+     */
+    @JsonCreator
+    VaultHeader(@JsonProperty("format") String format,
+                @JsonProperty("version") int version,
+                @JsonProperty("slots") List<Slot> slots,
+                @JsonProperty("kdf") String kdf,
+                @JsonProperty("iterations") int iterations,
+                @JsonProperty("salt") byte[] salt,
+                @JsonProperty("check") byte[] check) throws IOException {
+        if (!FORMAT.equals(format)) {
+            throw new IOException("Unsupported vault header");
+        }
+        if (version == DIRECT_KEY_VERSION) {
+            slots = List.of(new Slot(PASSWORD_LABEL, kdf, iterations, salt, check));
+        } else if (version != VERSION || slots == null || slots.isEmpty()) {
+            throw new IOException("Unsupported vault header");
+        }
+        this.version = version;
+        this.slots = List.copyOf(slots);
+    }
+
+    private VaultHeader(List<Slot> slots) {
+        this.version = VERSION;
+        this.slots = List.copyOf(slots);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * @EFFECTS: returns the bytes a slot is bound to, so that changing its label or derivation settings breaks it
+     */
+    private static byte[] associatedData(int version, String label, int iterations, byte[] salt) {
+        String labelPart = version == DIRECT_KEY_VERSION ? "" : label + "/";
+        return (FORMAT + "/" + version + "/" + labelPart + Keyset.KDF_ALGORITHM + "/" + iterations + "/"
+                + Base64.getEncoder().encodeToString(salt)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @EFFECTS: returns a new header with a fresh data key and a single slot for password, for a vault that does not
+     * replace one in the current format; it never shares the data key or the slots of another vault
+     */
+    public static synchronized VaultHeader forPassword(String password) throws GeneralSecurityException {
+        byte[] dataKey = randomBytes(DATA_KEY_LENGTH);
+        VaultHeader header = new VaultHeader(List.of(Slot.wrap(PASSWORD_LABEL, password, dataKey)));
+        last = new Unlocked(header, dataKey, tag(password));
+        return header;
+    }
+
+    /**
+     * @EFFECTS: returns current if it is a current version header, so that a vault saved over itself keeps its data
+     * key and its other ways of unlocking, and forPassword(password) if there is no current header or it is an older
+     * version. Throws GeneralSecurityException if password does not unlock current, so that a vault is never saved
+     * over with a password that would drop its recovery key
+     */
+    public static VaultHeader forPassword(String password, VaultHeader current) throws GeneralSecurityException {
+        if (current != null && current.isEnveloped()) {
+            current.unlock(password);
+            return current;
+        }
+        return forPassword(password);
+    }
+
+    /**
+     * @EFFECTS: returns the key the entries of the vault are sealed with; throws GeneralSecurityException if secret
+     * opens none of the slots, which means it is wrong or the header was altered
+     */
+    public Keyset unlock(String secret) throws GeneralSecurityException {
+        return open(secret).keyset;
+    }
+
+    /**
+     * @EFFECTS: returns this header with its data key as opened by secret, trying the slots in order
+     */
+    private Unlocked open(String secret) throws GeneralSecurityException {
+        byte[] tag = tag(secret);
+        synchronized (VaultHeader.class) {
+            if (last != null && MessageDigest.isEqual(last.tag, tag) && last.header.sameKeyAs(this)) {
+                return last;
+            }
+        }
+        for (Slot slot : slots) {
+            try {
+                Unlocked unlocked = new Unlocked(this, slot.open(secret, version), tag);
+                synchronized (VaultHeader.class) {
+                    last = unlocked;
+                }
+                return unlocked;
+            } catch (GeneralSecurityException e) {
+                // not the secret of this slot; try the next one
+            }
+        }
+        throw new GeneralSecurityException("Bad password!");
+    }
+
+    /**
+     * @EFFECTS: returns a copy of this header in which the slot labelled label, added if there is none, opens the data
+     * key with newSecret; the data key stays the same, so the entries need not be sealed again. The copy is kept as
+     * the last unlocked header under newSecret if label is PASSWORD_LABEL and under secret otherwise. Throws
+     * GeneralSecurityException if secret does not unlock this header
+     */
+    public VaultHeader withSlot(String secret, String label, String newSecret) throws GeneralSecurityException {
+        byte[] dataKey = open(secret).dataKey;
+        List<Slot> rewrapped = new ArrayList<>();
+        Slot added = Slot.wrap(label, newSecret, dataKey);
+        boolean replaced = false;
+        for (Slot slot : slots) {
+            boolean match = slot.label.equals(label);
+            rewrapped.add(match ? added : slot);
+            replaced |= match;
+        }
+        if (!replaced) {
+            rewrapped.add(added);
+        }
+        VaultHeader header = new VaultHeader(rewrapped);
+        Unlocked unlocked = new Unlocked(header, dataKey, tag(PASSWORD_LABEL.equals(label) ? newSecret : secret));
+        synchronized (VaultHeader.class) {
+            last = unlocked;
+        }
+        return header;
+    }
+
+    /**
+     * @EFFECTS: returns true if the entries are sealed with a data key wrapped by the slots, and false if this is a
+     * version 1 header whose password key seals them directly
+     */
+    @JsonIgnore
+    public boolean isEnveloped() {
+        return version == VERSION;
+    }
+
+    private boolean sameKeyAs(VaultHeader other) {
+        if (version != other.version || slots.size() != other.slots.size()) {
+            return false;
+        }
+        for (int i = 0; i < slots.size(); i++) {
+            if (!slots.get(i).sameAs(other.slots.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @EFFECTS: returns a tag of secret under a key that only lives as long as this process
+     */
+    private static byte[] tag(String secret) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(TAG_KEY, "HmacSHA256"));
+        return mac.doFinal(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @MODIFIES: in
+     * @EFFECTS: reads the header at the start of in and returns it, leaving in at the list of entries; returns null and
+     * leaves in where it was if the vault has no header. Reads at most MAX_LENGTH characters; throws IOException if
+     * the header is longer or cannot be read
+     */
+    public static VaultHeader read(BufferedReader in) throws IOException {
+        in.mark(1);
+        if (in.read() != '{') {
+            in.reset();
+            return null;
+        }
+        StringBuilder line = new StringBuilder("{");
+        int c;
+        while ((c = in.read()) != '\n' && c != -1) {
+            if (line.length() >= MAX_LENGTH) {
+                throw new IOException("Vault header is too long");
+            }
+            line.append((char) c);
+        }
+        return parse(line.toString());
+    }
+
+    /**
+     * @EFFECTS: returns the header stored as line; throws IOException if it is not a header this version reads
+     */
+    static VaultHeader parse(String line) throws IOException {
+        return new ObjectMapper().readValue(line, VaultHeader.class);
+    }
+
+    /**
+     * @REQUIRES: isEnveloped()
+     * @EFFECTS: returns the header as the single line of JSON it is stored as, without a line break
+     */
+    public String toLine() throws IOException {
+        return new ObjectMapper().writeValueAsString(this);
+    }
+
+    @JsonGetter("format")
+    String getFormat() {
+        return FORMAT;
+    }
+
+    @JsonGetter("version")
+    int getVersion() {
+        return version;
+    }
+
+    @JsonGetter("slots")
+    List<Slot> getSlots() {
+        return slots;
+    }
+
+    /**
+     * @EFFECTS: returns the labels of the ways this header can be unlocked, in order
+     */
+    @JsonIgnore
+    public List<String> getLabels() {
+        List<String> labels = new ArrayList<>();
+        for (Slot slot : slots) {
+            labels.add(slot.label);
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,135 @@
+package persistence;
+
+import model.entries.File;
+import model.entries.PasswordGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+
+// Represents a change to the ways a stored vault is unlocked. The entries are sealed with the data key of the vault,
+// which only the header wraps, so changing the master password or adding a recovery key writes a new header line and
+// copies the entries after it byte for byte, however many there are. A vault in an older format, whose entries are
+// sealed with the key of the master password itself, is loaded and saved once first, which moves it to the current
+// format. The vault is replaced in a single move, so it is never left half written.
+public class VaultRekeyer {
+    public static final String RECOVERY_LABEL = "recovery";
+    public static final int RECOVERY_WORDS = 10;
+
+    private final Path source;
+
+    /**
+     * @EFFECTS: constructs a rekeyer for the vault stored in source
+     */
+    public VaultRekeyer(String source) {
+        this.source = Paths.get(source);
+    }
+
+    /**
+     * @MODIFIES: the source file
+     * @EFFECTS: makes newPassword the master password of the vault in place of the current one; secret is the current
+     * master password or a recovery key. Throws GeneralSecurityException, leaving the vault as it was, if secret does
+     * not unlock it, and IOException if it could not be read or written
+     */
+    public void changePassword(String secret, String newPassword) throws IOException, GeneralSecurityException {
+        rewrap(secret, VaultHeader.PASSWORD_LABEL, newPassword);
+    }
+
+    /**
+     * @MODIFIES: the source file
+     * @EFFECTS: adds a recovery key that unlocks the vault like its master password, replacing any earlier recovery
+     * key, and returns it; the key is RECOVERY_WORDS words from the built-in wordlist. Throws GeneralSecurityException,
+     * leaving the vault as it was, if password does not unlock it, and IOException if it could not be read or written
+     */
+    public String addRecoveryKey(String password) throws IOException, GeneralSecurityException {
+        String recoveryKey = PasswordGenerator.generatePassphrase("-", RECOVERY_WORDS);
+        rewrap(password, RECOVERY_LABEL, recoveryKey);
+        return recoveryKey;
+    }
+
+    /**
+     * @MODIFIES: the source file
+     * @EFFECTS: replaces the header of the vault with one in which the slot labelled label opens the data key with
+     * newSecret, and copies the entries after it unchanged
+     */
+    private void rewrap(String secret, String label, String newSecret) throws IOException, GeneralSecurityException {
+        if (!isEnveloped()) {
+            upgrade(secret);
+        }
+        Path temp = Files.createTempFile(source.toAbsolutePath().getParent(), source.getFileName().toString(), ".tmp");
+        try {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(source));
+                 OutputStream out = Files.newOutputStream(temp)) {
+                VaultHeader header = VaultHeader.parse(readHeaderLine(in));
+                VaultHeader rewrapped;
+                try {
+                    rewrapped = header.withSlot(secret, label, newSecret);
+                } catch (GeneralSecurityException e) {
+                    throw JsonReader.authenticationFailed();
+                }
+                out.write((rewrapped.toLine() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+                in.transferTo(out);
+            }
+            Files.move(temp, source, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @EFFECTS: returns true if the vault starts with a header that wraps a data key
+     */
+    private boolean isEnveloped() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            String line = readHeaderLine(in);
+            return line != null && VaultHeader.parse(line).isEnveloped();
+        }
+    }
+
+    /**
+     * @MODIFIES: the source file
+     * @EFFECTS: loads the vault with password and saves it again in the current format
+     */
+    private void upgrade(String password) throws IOException, GeneralSecurityException {
+        File file = new JsonReader(source.toString()).read(password, source.toString());
+        JsonWriter writer = new JsonWriter(source.toString());
+        writer.open();
+        try {
+            writer.write(file, password);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @MODIFIES: in
+     * @EFFECTS: reads the header line at the start of in, up to and including its line break, and returns it without
+     * the line break; returns null if the vault has no header. Throws IOException if the line is longer than
+     * VaultHeader.MAX_LENGTH
+     */
+    private static String readHeaderLine(InputStream in) throws IOException {
+        in.mark(1);
+        if (in.read() != '{') {
+            in.reset();
+            return null;
+        }
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        line.write('{');
+        int b;
+        while ((b = in.read()) != '\n' && b != -1) {
+            if (line.size() >= VaultHeader.MAX_LENGTH) {
+                throw new IOException("Vault header is too long");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8.name()).trim();
+    }
+}
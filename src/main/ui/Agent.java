@@ -0,0 +1,289 @@
+package ui;
+
+import model.entries.Entry;
+import model.entries.File;
+import persistence.JsonReader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Represents an agent, similar to ssh-agent, that keeps a vault unlocked in memory and answers lookups from local
+// clients so scripts do not pay for a key derivation and a full decrypt on every call. The agent only listens on the
+// loopback interface; it writes its port and a random token to an owner-only token file, and every request must start
+// with that token. After the idle timeout passes without an authorized request the entries are dropped and the agent
+// exits, so requests without the token cannot keep it unlocked. At most MAX_CONNECTIONS clients are served at once, and
+// a client that sends nothing for CLIENT_TIMEOUT_MILLIS is disconnected.
+// Usage: Main --agent [--store PATH] [--token-file PATH] [--idle-minutes N]
+// Protocol: one request per line, "TOKEN COMMAND [--option value ...]", where COMMAND is get --name NAME,
+// find --query TEXT, list or stop. The reply is "OK n" followed by n lines, or "ERR message".
+public class Agent {
+    public static final String DEFAULT_TOKEN_FILE = "./data/agent.token";
+    private static final String DEFAULT_STORE = "./data/workroom.json";
+    private static final int TOKEN_BYTES = 32;
+    static final int MAX_CONNECTIONS = 8;
+    static final int CLIENT_TIMEOUT_MILLIS = 30_000;
+
+    private final File file;
+    private final Path tokenFile;
+    private final long idleNanos;
+    private final ExecutorService connections;
+    private final Semaphore slots;
+    private final ScheduledExecutorService watchdog;
+    private final String token;
+    private ServerSocket server;
+    private volatile long lastUsed;
+
+    /**
+     * @REQUIRES: idleMillis > 0
+     * @EFFECTS: creates an agent serving the entries of file that stops after idleMillis without a request
+     */
+    public Agent(File file, Path tokenFile, long idleMillis) {
+        this.file = file;
+        this.tokenFile = tokenFile;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.connections = Executors.newFixedThreadPool(MAX_CONNECTIONS, r -> daemon(r, "safepass-agent"));
+        this.slots = new Semaphore(MAX_CONNECTIONS);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "safepass-agent-idle"));
+        byte[] secret = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(secret);
+        this.token = hex(secret);
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * @REQUIRES: args[0] is --agent
+     * @EFFECTS: unlocks the vault named by args and serves it until it is stopped or idle; returns 1 if the vault could
+     * not be unlocked or the agent could not start, 0 otherwise
+     */
+    public static int run(String[] args) throws IOException {
+        Map<String, String> options = BatchMode.parseOptions(List.of(args).subList(1, args.length));
+        String store = options.getOrDefault("store", DEFAULT_STORE);
+        long idleMillis = TimeUnit.MINUTES.toMillis(Long.parseLong(options.getOrDefault("idle-minutes", "15")));
+        File file;
+        try {
+            String password = BatchMode.readMasterPassword(
+                    new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+            file = new JsonReader(store).read(password, store);
+        } catch (IOException e) {
+            System.err.println("Unable to read from file: " + store);
+            return 1;
+        } catch (GeneralSecurityException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+        Agent agent = new Agent(file, Paths.get(options.getOrDefault("token-file", DEFAULT_TOKEN_FILE)), idleMillis);
+        agent.start();
+        System.out.println("Agent listening on port " + agent.getPort() + "; token in " + agent.tokenFile);
+        agent.serve();
+        return 0;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: binds an ephemeral loopback port, writes the token file and starts the idle timer
+     */
+    public void start() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        writeTokenFile();
+        lastUsed = System.nanoTime();
+        long period = Math.max(1, TimeUnit.NANOSECONDS.toMillis(idleNanos) / 4);
+        watchdog.scheduleAtFixedRate(this::stopIfIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @EFFECTS: writes "port token" to the token file, readable by the owner only where the file system allows it
+     */
+    private void writeTokenFile() throws IOException {
+        Path parent = tokenFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "agent", ".tmp");
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+        }
+        Files.write(temp, (getPort() + " " + token + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, tokenFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @EFFECTS: accepts connections and handles each one on its own thread until the agent is stopped; a client that
+     * connects while MAX_CONNECTIONS others are being served is told the agent is busy and disconnected
+     */
+    public void serve() {
+        try {
+            while (true) {
+                Socket client = server.accept();
+                if (!slots.tryAcquire()) {
+                    refuse(client);
+                    continue;
+                }
+                connections.execute(() -> {
+                    try {
+                        handle(client);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (IOException | RejectedExecutionException e) {
+            // the agent was stopped
+        }
+    }
+
+    private static void refuse(Socket client) {
+        try (Socket socket = client) {
+            socket.getOutputStream().write("ERR busy\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // the client went away
+        }
+    }
+
+    /**
+     * @EFFECTS: answers every request sent on client until it disconnects or sends one without the right token
+     */
+    private void handle(Socket client) {
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(CLIENT_TIMEOUT_MILLIS);
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean authorized = answer(line, out);
+                out.flush();
+                if (!authorized) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // the client went away
+        }
+    }
+
+    /**
+     * @EFFECTS: writes the reply to request to out and restarts the idle timer; returns false, leaving the timer
+     * alone, if request did not carry the token
+     */
+    private boolean answer(String request, Writer out) throws IOException {
+        List<String> tokens = BatchMode.tokenize(request);
+        if (tokens.size() < 2 || !MessageDigest.isEqual(tokens.get(0).getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            out.write("ERR not authorized\n");
+            return false;
+        }
+        lastUsed = System.nanoTime();
+        try {
+            List<String> lines = lookup(tokens.get(1), BatchMode.parseOptions(tokens.subList(2, tokens.size())));
+            out.write("OK " + lines.size() + "\n");
+            for (String line : lines) {
+                out.write(line + "\n");
+            }
+        } catch (IllegalArgumentException e) {
+            out.write("ERR " + e.getMessage() + "\n");
+        }
+        return true;
+    }
+
+    /**
+     * @EFFECTS: returns the reply lines for command; throws IllegalArgumentException if it is not understood
+     */
+    private List<String> lookup(String command, Map<String, String> options) {
+        List<String> lines = new ArrayList<>();
+        switch (command) {
+            case "get":
+                Entry e = file.getEntryAtIndex(BatchMode.indexOf(file, BatchMode.require(options, "name")));
+                lines.add(e.getName() + "\t" + e.getUsername() + "\t" + e.getPasswordText() + "\t" + e.getUrl());
+                break;
+            case "find":
+                for (int i : file.findEntries(BatchMode.require(options, "query"))) {
+                    lines.add(file.getEntryAtIndex(i).getName());
+                }
+                break;
+            case "list":
+                file.snapshot().forEach(entry -> lines.add(entry.getName()));
+                break;
+            case "stop":
+                requestStop();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command);
+        }
+        return lines;
+    }
+
+    /**
+     * @EFFECTS: stops the agent once the reply has been sent; does nothing if it is already stopped
+     */
+    private void requestStop() {
+        try {
+            watchdog.execute(this::stop);
+        } catch (RejectedExecutionException e) {
+            // the agent was already stopped
+        }
+    }
+
+    private void stopIfIdle() {
+        if (System.nanoTime() - lastUsed > idleNanos) {
+            stop();
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: drops the decrypted entries, removes the token file and stops accepting connections
+     */
+    public synchronized void stop() {
+        file.setEntries(new ArrayList<>());
+        watchdog.shutdownNow();
+        connections.shutdownNow();
+        try {
+            Files.deleteIfExists(tokenFile);
+            server.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package ui;
+
+import model.entries.ProgressListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Represents the background thread that loads and saves the vault so the input loop stays responsive. Tasks run one
+// at a time in the order they were submitted, so a save requested during a load only starts once the load is done.
+// The progress of the running task is kept so the menu can show it.
+class BackgroundTasks {
+    private final ExecutorService executor;
+    private final AtomicInteger pending;
+    private volatile String activity;
+    private volatile int processed;
+    private volatile int total;
+
+    /**
+     * @EFFECTS: creates a daemon worker thread with no tasks
+     */
+    BackgroundTasks() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "safepass-io");
+            t.setDaemon(true);
+            return t;
+        });
+        pending = new AtomicInteger();
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: queues task to run on the worker thread; task reports its progress through the listener it is given
+     * and must handle its own errors
+     */
+    void submit(String activity, Consumer<ProgressListener> task) {
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            this.activity = activity;
+            processed = 0;
+            total = 0;
+            try {
+                task.accept(this::update);
+            } finally {
+                this.activity = null;
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private void update(int processed, int total) {
+        this.processed = processed;
+        this.total = total;
+    }
+
+    /**
+     * @EFFECTS: returns true if a task is running or waiting to run
+     */
+    boolean isBusy() {
+        return pending.get() > 0;
+    }
+
+    /**
+     * @EFFECTS: returns a line describing the running task and how far it got, or null if nothing is running
+     */
+    String describeProgress() {
+        String current = activity;
+        if (current == null) {
+            return isBusy() ? "Waiting for a background task to start..." : null;
+        }
+        return current + ": " + processed + "/" + total + " entries";
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: stops accepting tasks and waits for the queued ones to finish
+     */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
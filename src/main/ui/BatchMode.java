@@ -0,0 +1,432 @@
+package ui;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import model.entries.PasswordGenerator;
+import model.entries.PasswordGenerator.CharacterTypes;
+import model.entries.PasswordPolicy;
+import model.entries.Wordlist;
+import model.event.EventLog;
+import persistence.AuditLogAppender;
+import persistence.EntryExporter;
+import persistence.EntryImporter;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+import persistence.VaultRekeyer;
+
+import java.io.BufferedReader;
+import java.io.Console;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Represents a non-interactive session that runs commands without prompting. The vault is unlocked once, every
+// command runs against the entries in memory and the vault is saved once at the end if anything changed, so scripting
+// hundreds of changes costs a single key derivation on load and on save.
+// Usage: Main --batch [--store PATH] [COMMAND ...]
+// The arguments after the options form a single command; with none, commands are read from stdin, one per line.
+// The master password is taken from the SAFEPASS_PASSWORD environment variable, the console, or the first line of
+// stdin, in that order. Commands:
+//   get --name NAME
+//   add --name NAME [--username U] [--url U] [--notes N] (--password P | --generate LENGTH | --passphrase WORDS)
+//       [--wordlist PATH]   passphrases come from the wordlist in PATH instead of the built-in EFF long list
+//       [--min-lower N] [--min-upper N] [--min-digits N] [--min-symbols N]   at least N of each, 1 by default
+//       [--exclude-ambiguous true] [--max-repeats N]   rules for --generate
+//   remove --name NAME
+//   list
+//   import --file PATH      runs the commands in PATH, one per line
+//   import-entries --file PATH   imports a CSV or JSON export from another password manager
+//   export --file PATH [--password P]   writes plaintext CSV if PATH ends in .csv, otherwise an encrypted vault
+//   change-password --new P   rewraps the vault key for the new master password without sealing the entries again
+//   add-recovery-key        prints a new recovery key that unlocks the vault in place of the master password
+// Blank lines and lines starting with # are skipped. A failed command is reported on stderr and the rest still run.
+public class BatchMode {
+    private static final String DEFAULT_STORE = "./data/workroom.json";
+    private static final String PASSWORD_VARIABLE = "SAFEPASS_PASSWORD";
+
+    private final String store;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Set<Path> importing = new HashSet<>();
+    private File file;
+    private String masterPassword;
+    private int failures;
+
+    /**
+     * @EFFECTS: creates a batch session over the vault stored at store that prints results to out and errors to err
+     */
+    public BatchMode(String store, PrintStream out, PrintStream err) {
+        this.store = store;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * @REQUIRES: args[0] is --batch
+     * @EFFECTS: runs a batch session configured by args and returns the number of commands that failed, or 1 if the
+     * vault could not be unlocked or saved
+     */
+    public static int run(String[] args) throws IOException {
+        int first = 1;
+        String store = DEFAULT_STORE;
+        if (args.length > 2 && args[1].equals("--store")) {
+            store = args[2];
+            first = 3;
+        }
+        BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        BatchMode batch = new BatchMode(store, System.out, System.err);
+        AuditLogAppender auditLog = new AuditLogAppender(AuditLogAppender.DEFAULT_STORE);
+        auditLog.start();
+        EventLog.getInstance().addSink(auditLog);
+        try {
+            if (!batch.unlock(readMasterPassword(stdin))) {
+                return 1;
+            }
+            if (first < args.length) {
+                batch.execute(Arrays.asList(args).subList(first, args.length));
+            } else {
+                batch.executeAll(stdin);
+            }
+            return batch.finish() ? batch.failures : 1;
+        } finally {
+            EventLog.getInstance().removeSink(auditLog);
+            auditLog.close();
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the master password from the environment, the console or the next line of stdin
+     */
+    static String readMasterPassword(BufferedReader stdin) throws IOException {
+        String password = System.getenv(PASSWORD_VARIABLE);
+        if (password != null) {
+            return password;
+        }
+        Console console = System.console();
+        if (console != null) {
+            return new String(console.readPassword("Enter your master password: "));
+        }
+        password = stdin.readLine();
+        return password == null ? "" : password;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: loads the vault with masterPassword, or starts an empty vault if there is none yet; returns false and
+     * reports the error if the vault could not be read
+     */
+    boolean unlock(String masterPassword) {
+        this.masterPassword = masterPassword;
+        try {
+            file = Files.exists(Paths.get(store))
+                    ? new JsonReader(store).read(masterPassword, store) : new File();
+            return true;
+        } catch (IOException e) {
+            err.println("Unable to read from file: " + store);
+        } catch (GeneralSecurityException e) {
+            err.println(e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * @EFFECTS: returns the number of commands that failed so far
+     */
+    int getFailureCount() {
+        return failures;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: runs every command read from reader until it is exhausted
+     */
+    public void executeAll(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                execute(tokenize(trimmed));
+            }
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: runs the command made of tokens; a failure is reported on err and counted
+     */
+    public void execute(List<String> tokens) {
+        try {
+            dispatch(tokens.get(0), parseOptions(tokens.subList(1, tokens.size())));
+        } catch (IllegalArgumentException | IOException e) {
+            failures++;
+            err.println("error: " + String.join(" ", tokens) + ": " + e.getMessage());
+        }
+    }
+
+    private void dispatch(String command, Map<String, String> options) throws IOException {
+        switch (command) {
+            case "get":
+                get(require(options, "name"));
+                break;
+            case "add":
+                add(options);
+                break;
+            case "remove":
+                file.removeEntry(indexOf(file, require(options, "name")));
+                break;
+            case "list":
+                list();
+                break;
+            case "import":
+                importCommands(require(options, "file"));
+                break;
+            case "export":
+                export(Paths.get(require(options, "file")), options.get("password"));
+                break;
+            case "change-password":
+                changePassword(require(options, "new"));
+                break;
+            case "add-recovery-key":
+                addRecoveryKey();
+                break;
+            case "import-entries":
+                int imported = new EntryImporter().importFrom(Paths.get(require(options, "file")), file);
+                out.println("Imported " + imported + " entries");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + command);
+        }
+    }
+
+    private void get(String name) {
+        Entry e = file.getEntryAtIndex(indexOf(file, name));
+        out.println(e.getName() + "\t" + e.getUsername() + "\t" + e.getPasswordText() + "\t" + e.getUrl());
+    }
+
+    private void add(Map<String, String> options) throws IOException {
+        String name = require(options, "name");
+        if (findName(file, name) >= 0) {
+            throw new IllegalArgumentException("An entry named " + name + " already exists");
+        }
+        file.addEntry(new Entry(name, options.getOrDefault("username", ""), password(options),
+                options.getOrDefault("url", ""), options.getOrDefault("notes", "")));
+    }
+
+    /**
+     * @EFFECTS: returns the password given with --password, or generates one with --generate or --passphrase
+     */
+    private static Password password(Map<String, String> options) throws IOException {
+        if (options.containsKey("password")) {
+            return new Password(options.get("password"));
+        } else if (options.containsKey("generate")) {
+            return new Password(PasswordGenerator.getInstance().generatePassword(policy(options)));
+        } else if (options.containsKey("passphrase")) {
+            Wordlist wordlist = options.containsKey("wordlist")
+                    ? Wordlist.load(Paths.get(options.get("wordlist"))) : Wordlist.builtIn();
+            int words = positive(options.get("passphrase"));
+            return new Password(PasswordGenerator.generatePassphrase(wordlist, "-", words));
+        }
+        throw new IllegalArgumentException("Expected --password, --generate or --passphrase");
+    }
+
+    private void list() {
+        for (Entry e : file.snapshot()) {
+            out.println(e.getName() + "\t" + e.getUsername() + "\t" + e.getUrl());
+        }
+    }
+
+    /**
+     * @EFFECTS: writes the entries to destination as plaintext CSV if its name ends in .csv, and otherwise as a vault
+     * encrypted with password, or with the master password if none is given
+     */
+    private void export(Path destination, String password) throws IOException {
+        EntryExporter exporter = new EntryExporter();
+        int count = destination.getFileName().toString().endsWith(".csv") ? exporter.exportCsv(file, destination)
+                : exporter.exportEncrypted(file, password == null ? masterPassword : password, destination);
+        out.println("Exported " + count + " entries");
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: makes newPassword the master password of the stored vault, if there is one, and of the final save
+     */
+    private void changePassword(String newPassword) throws IOException {
+        if (Files.exists(Paths.get(store))) {
+            try {
+                new VaultRekeyer(store).changePassword(masterPassword, newPassword);
+            } catch (GeneralSecurityException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        masterPassword = newPassword;
+        out.println("Changed the master password");
+    }
+
+    /**
+     * @EFFECTS: adds a recovery key to the stored vault and prints it; throws IllegalArgumentException if the vault
+     * was never saved
+     */
+    private void addRecoveryKey() throws IOException {
+        if (!Files.exists(Paths.get(store))) {
+            throw new IllegalArgumentException("Save the vault before adding a recovery key");
+        }
+        try {
+            out.println(new VaultRekeyer(store).addRecoveryKey(masterPassword));
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: runs the commands in the file at path; throws IllegalArgumentException if that file is already being
+     * imported, so a file that imports itself, directly or through others, does not recurse forever
+     */
+    private void importCommands(String path) throws IOException {
+        Path source = Paths.get(path).toAbsolutePath().normalize();
+        if (!importing.add(source)) {
+            throw new IllegalArgumentException(path + " is already being imported");
+        }
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            executeAll(reader);
+        } finally {
+            importing.remove(source);
+        }
+    }
+
+    /**
+     * @EFFECTS: saves the vault if any command changed it; returns false and reports the error if
+     * it could not be written
+     */
+    boolean finish() {
+        if (file.getModificationCount() == 0) {
+            return true;
+        }
+        JsonWriter writer = new JsonWriter(store);
+        try {
+            writer.open();
+            try {
+                writer.write(file, masterPassword);
+            } finally {
+                writer.close();
+            }
+            return true;
+        } catch (IOException e) {
+            err.println("Unable to write to file: " + store);
+            return false;
+        }
+    }
+
+    /**
+     * @EFFECTS: returns the index of the entry of file named name, ignoring case; throws IllegalArgumentException if
+     * there is none
+     */
+    static int indexOf(File file, String name) {
+        int index = findName(file, name);
+        if (index < 0) {
+            throw new IllegalArgumentException("No entry named " + name);
+        }
+        return index;
+    }
+
+    private static int findName(File file, String name) {
+        for (int i : file.findEntries(name)) {
+            if (file.getEntryAtIndex(i).getName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String require(Map<String, String> options, String key) {
+        String value = options.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + key);
+        }
+        return value;
+    }
+
+    /**
+     * @EFFECTS: returns the policy for --generate: every character type with at least the given --min-* count, or one
+     * if none is given, and the --exclude-ambiguous and --max-repeats rules
+     */
+    private static PasswordPolicy policy(Map<String, String> options) {
+        Map<CharacterTypes, Integer> minimums = new EnumMap<>(CharacterTypes.class);
+        minimums.put(CharacterTypes.LOWERCASE_ALPHA, Integer.parseInt(options.getOrDefault("min-lower", "1")));
+        minimums.put(CharacterTypes.UPPERCASE_ALPHA, Integer.parseInt(options.getOrDefault("min-upper", "1")));
+        minimums.put(CharacterTypes.NUMERIC, Integer.parseInt(options.getOrDefault("min-digits", "1")));
+        minimums.put(CharacterTypes.SYMBOLS, Integer.parseInt(options.getOrDefault("min-symbols", "1")));
+        return new PasswordPolicy(positive(options.get("generate")), minimums,
+                Boolean.parseBoolean(options.get("exclude-ambiguous")),
+                Integer.parseInt(options.getOrDefault("max-repeats", "0")));
+    }
+
+    private static int positive(String value) {
+        int n = Integer.parseInt(value);
+        if (n <= 0) {
+            throw new IllegalArgumentException("Expected a positive number but got " + value);
+        }
+        return n;
+    }
+
+    /**
+     * @EFFECTS: returns the --option value pairs in tokens keyed by name without the leading dashes; throws
+     * IllegalArgumentException if they do not pair up
+     */
+    static Map<String, String> parseOptions(List<String> tokens) {
+        if (tokens.size() % 2 != 0) {
+            throw new IllegalArgumentException("Every option needs a value");
+        }
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i += 2) {
+            if (!tokens.get(i).startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option but got " + tokens.get(i));
+            }
+            options.put(tokens.get(i).substring(2), tokens.get(i + 1));
+        }
+        return options;
+    }
+
+    /**
+     * @EFFECTS: splits line on whitespace, keeping text between double quotes together
+     */
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                started = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (started) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    started = false;
+                }
+            } else {
+                token.append(c);
+                started = true;
+            }
+        }
+        if (started) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
@@ -10,7 +10,16 @@ public enum Input {
     PASSWORD,
     SAVE,
     LOAD,
+    IMPORT,
+    EXPORT,
+    REUSE,
+    BREACH,
+    HEALTH,
     VIEW,
+    STATS,
+    STATUS,
+    CHANGE,
+    RECOVERY,
     DEFAULT;
 
     Input() {
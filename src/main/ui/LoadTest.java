@@ -0,0 +1,141 @@
+package ui;
+
+import model.entries.File;
+import model.entries.VaultGenerator;
+import persistence.JsonReader;
+import persistence.JsonWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Represents a headless load test. It generates a synthetic vault, then runs timed save/unlock/list/search cycles
+// against it and reports the median and 99th percentile latency of each step along with the peak heap in use.
+// Usage: LoadTest [--entries N] [--password-length N] [--notes-length N] [--cycles N] [--store PATH] [--seed N]
+public class LoadTest {
+    private static final String MASTER_PASSWORD = "load-test-master-password";
+    private static final String[] STEPS = {"save", "unlock", "list", "search"};
+
+    private final int entries;
+    private final int passwordLength;
+    private final int notesLength;
+    private final int cycles;
+    private final Path store;
+    private final long seed;
+    private final Map<String, long[]> latencies;
+    private long peakHeap;
+
+    /**
+     * @EFFECTS: creates a load test configured from the given --option value pairs, using defaults for the rest
+     */
+    public LoadTest(Map<String, String> options) {
+        entries = Integer.parseInt(options.getOrDefault("entries", "1000"));
+        passwordLength = Integer.parseInt(options.getOrDefault("password-length", "20"));
+        notesLength = Integer.parseInt(options.getOrDefault("notes-length", "64"));
+        cycles = Integer.parseInt(options.getOrDefault("cycles", "10"));
+        store = Paths.get(options.getOrDefault("store", "./data/loadtest.json"));
+        seed = Long.parseLong(options.getOrDefault("seed", "210"));
+        latencies = new HashMap<>();
+        for (String step : STEPS) {
+            latencies.put(step, new long[cycles]);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, GeneralSecurityException {
+        LoadTest test = new LoadTest(parseOptions(args));
+        test.run();
+        test.report();
+    }
+
+    /**
+     * @REQUIRES: args alternate between --option names and their values
+     * @EFFECTS: returns the options in args keyed by name without the leading dashes
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option but got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: generates the vault and runs every cycle, recording the latency of each step
+     */
+    public void run() throws IOException, GeneralSecurityException {
+        System.out.println("Generating " + entries + " entries...");
+        File file = new VaultGenerator(passwordLength, notesLength, seed).generateFile(entries);
+        Files.createDirectories(store.toAbsolutePath().getParent());
+        for (int c = 0; c < cycles; c++) {
+            long start = System.nanoTime();
+            save(file);
+            long saved = System.nanoTime();
+            File loaded = new JsonReader(store.toString()).read(MASTER_PASSWORD, store.toString());
+            long unlocked = System.nanoTime();
+            list(loaded);
+            long listed = System.nanoTime();
+            loaded.findEntries("mail");
+            long searched = System.nanoTime();
+            record(c, start, saved, unlocked, listed, searched);
+        }
+        Files.deleteIfExists(store);
+    }
+
+    private void save(File file) throws IOException {
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, MASTER_PASSWORD);
+        writer.close();
+    }
+
+    /**
+     * @EFFECTS: renders every entry the way the list command does, without printing it
+     */
+    private static int list(File file) {
+        int length = 0;
+        for (int i = 0; i < file.getSizeOfEntries(); i++) {
+            length += file.getEntryAtIndex(i).toString(i).length();
+        }
+        return length;
+    }
+
+    private void record(int cycle, long... timestamps) {
+        for (int i = 0; i < STEPS.length; i++) {
+            latencies.get(STEPS[i])[cycle] = timestamps[i + 1] - timestamps[i];
+        }
+        Runtime runtime = Runtime.getRuntime();
+        peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    /**
+     * @EFFECTS: prints the median and 99th percentile latency of each step and the peak heap in use
+     */
+    public void report() {
+        System.out.printf("%d entries, %d cycles%n", entries, cycles);
+        for (String step : STEPS) {
+            long[] sorted = latencies.get(step).clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-7s p50 %10.3f ms   p99 %10.3f ms%n", step,
+                    percentile(sorted, 50) / 1e6, percentile(sorted, 99) / 1e6);
+        }
+        System.out.printf("peak heap %.1f MB%n", peakHeap / (1024.0 * 1024.0));
+    }
+
+    /**
+     * @REQUIRES: sorted is sorted in ascending order and not empty; 0 <= p <= 100
+     * @EFFECTS: returns the p-th percentile of sorted using the nearest-rank method
+     */
+    static long percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
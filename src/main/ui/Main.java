@@ -1,9 +1,17 @@
 package ui;
 
+import java.io.IOException;
+
 // Represents the main class which instantiates and runs the GUI
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(Math.min(BatchMode.run(args), 125));
+        }
+        if (args.length > 0 && args[0].equals("--agent")) {
+            System.exit(Agent.run(args));
+        }
         PasswordManager pm = new PasswordManager();
         pm.start();
     }
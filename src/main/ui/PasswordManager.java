@@ -1,39 +1,77 @@
 package ui;
 
+import model.analysis.HealthCheck;
+import model.analysis.ReuseAnalyzer;
 import model.entries.Entry;
+import model.entries.EntryCursor;
 import model.entries.File;
 import model.entries.Password;
 import model.entries.PasswordGenerator;
+import model.entries.PasswordPolicy;
+import model.entries.Wordlist;
+import model.entries.ProgressListener;
 import model.event.EventLog;
+import model.metrics.Metrics;
+import persistence.AuditLogAppender;
+import persistence.AutosaveScheduler;
+import persistence.BreachCorpus;
+import persistence.EntryExporter;
+import persistence.EntryImporter;
 import persistence.JsonReader;
 import persistence.JsonWriter;
+import persistence.VaultRekeyer;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
+import static ui.Input.BREACH;
+import static ui.Input.CHANGE;
 import static ui.Input.CREATE;
 import static ui.Input.CUSTOM;
 import static ui.Input.EXIT;
+import static ui.Input.EXPORT;
+import static ui.Input.HEALTH;
+import static ui.Input.IMPORT;
 import static ui.Input.LIST;
 import static ui.Input.LOAD;
 import static ui.Input.PASSPHRASE;
 import static ui.Input.PASSWORD;
 import static ui.Input.RANDOM;
+import static ui.Input.RECOVERY;
+import static ui.Input.REUSE;
 import static ui.Input.SAVE;
+import static ui.Input.STATS;
+import static ui.Input.STATUS;
 import static ui.Input.VIEW;
 
 // Represents the password manager application with the file currently open
 public class PasswordManager {
     private static final String JSON_STORE = "./data/workroom.json";
+    private static final String METRICS_STORE = "./data/metrics.json";
+    private static final long AUTOSAVE_DELAY_MILLIS = 2000;
+    private static final long AUTOSAVE_MAX_DELAY_MILLIS = 30000;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final String ENTRY_SEPARATOR =
+            "----------------------------------------------------------------------------\n";
     private File file;
     private Scanner scan;
     private PasswordGenerator passwordGenerator;
     private JsonWriter jsonWriter;
     private JsonReader jsonReader;
-    private String masterPassword;
+    private volatile String masterPassword;
+    private volatile boolean loading;
+    private AuditLogAppender auditLog;
+    private BackgroundTasks backgroundTasks;
+    private AutosaveScheduler autosave;
+    private ReuseAnalyzer reuseAnalyzer;
 
     /**
      * @MODIFIES: this
@@ -45,6 +83,14 @@ public class PasswordManager {
         passwordGenerator = PasswordGenerator.getInstance();
         jsonWriter = new JsonWriter(JSON_STORE);
         jsonReader = new JsonReader(JSON_STORE);
+        auditLog = new AuditLogAppender(AuditLogAppender.DEFAULT_STORE);
+        auditLog.start();
+        EventLog.getInstance().addSink(auditLog);
+        backgroundTasks = new BackgroundTasks();
+        autosave = new AutosaveScheduler(file, AUTOSAVE_DELAY_MILLIS,
+                AUTOSAVE_MAX_DELAY_MILLIS, this::autosave);
+        file.addListener(autosave);
+        reuseAnalyzer = new ReuseAnalyzer(file);
         displayIntroduction();
     }
 
@@ -54,12 +100,25 @@ public class PasswordManager {
     private void displayIntroduction() {
         boolean breakCondition = false;
         do {
+            String progress = backgroundTasks.describeProgress();
+            if (progress != null) {
+                System.out.println(progress);
+            }
             System.out.println("Welcome to SafePass!\n"
                     + "Enter " + CREATE + " to create a new entry.\n"
                     + "Enter " + VIEW + " to view an entry.\n"
                     + "Enter " + LIST + " to list all entries.\n"
                     + "Enter " + SAVE + " to save your file.\n"
                     + "Enter " + LOAD + " to load your file.\n"
+                    + "Enter " + IMPORT + " to import entries exported from another password manager.\n"
+                    + "Enter " + EXPORT + " to export your entries.\n"
+                    + "Enter " + REUSE + " to find passwords used by more than one entry.\n"
+                    + "Enter " + BREACH + " to check your passwords against a local list of breached passwords.\n"
+                    + "Enter " + HEALTH + " to view a health report of all your passwords.\n"
+                    + "Enter " + STATUS + " to view the progress of a load or save.\n"
+                    + "Enter " + CHANGE + " to change your master password.\n"
+                    + "Enter " + RECOVERY + " to add a recovery key that also unlocks your file.\n"
+                    + "Enter " + STATS + " to view performance statistics.\n"
                     + "Enter " + EXIT + " to exit.");
 
             breakCondition = parseInput(scan.nextLine());
@@ -71,7 +130,8 @@ public class PasswordManager {
      * indicates whether user wants to exit or not
      */
     private boolean parseInput(String input) {
-        switch (Input.findCorrespondingEnum(input)) {
+        Input command = Input.findCorrespondingEnum(input);
+        switch (command) {
             case CREATE:
                 createEntry();
                 System.out.println();
@@ -81,9 +141,14 @@ public class PasswordManager {
                 System.out.println();
                 break;
             case EXIT:
+                autosave.close();
+                saveBeforeExit();
+                finishBackgroundTasks();
                 System.out.println("Thanks for using the password manager!");
                 System.out.println("\nLog:");
                 EventLog.printLog();
+                EventLog.getInstance().removeSink(auditLog);
+                auditLog.close();
                 return true;
             case SAVE:
                 saveFile();
@@ -94,12 +159,51 @@ public class PasswordManager {
             case VIEW:
                 viewEntry();
                 break;
+            default:
+                parseToolInput(command);
+                break;
+        }
+        return false;
+    }
+
+    /**
+     * @EFFECTS: runs the import, export, analysis and diagnostic commands, or reports a command that is not understood
+     */
+    private void parseToolInput(Input command) {
+        switch (command) {
+            case IMPORT:
+                importEntries();
+                break;
+            case EXPORT:
+                exportEntries();
+                break;
+            case REUSE:
+                showReusedPasswords();
+                break;
+            case BREACH:
+                checkBreaches();
+                break;
+            case HEALTH:
+                backgroundTasks.submit("Checking health",
+                        listener -> System.out.print(new HealthCheck(reuseAnalyzer).run(file, listener).format()));
+                break;
+            case STATS:
+                showStats();
+                break;
+            case STATUS:
+                showStatus();
+                break;
+            case CHANGE:
+                changeMasterPassword();
+                break;
+            case RECOVERY:
+                addRecoveryKey();
+                break;
             default:
                 System.out.println(
                         "Sorry, I didn't understand that command. Please try again.");
                 break;
         }
-        return false;
     }
 
     private void viewEntry() {
@@ -108,6 +212,10 @@ public class PasswordManager {
         try {
             String output = file.viewEntry(index);
             System.out.println(output);
+            int others = reuseAnalyzer.countOthersSharing(file.getEntryAtIndex(index));
+            if (others > 0) {
+                System.out.println("Warning: " + others + " other entries use this password.");
+            }
         } catch (IndexOutOfBoundsException e) {
             System.out.println("Item #" + ++index + " does not exist.");
         }
@@ -115,29 +223,41 @@ public class PasswordManager {
 
     /**
      * @EFFECTS: lists entry number, name, username, password, password score, url, and notes of each entry in the
-     * file arraylist
+     * file arraylist, printing each page as soon as it is rendered and asking before showing the next one; the page
+     * size comes from the safepass.list.pageSize property
      */
     private void listAllEntries() {
         if (file.getSizeOfEntries() == 0) {
             System.out.println("You have no entries.");
-        } else {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < file.getSizeOfEntries(); i++) {
-                sb.append(
-                        "----------------------------------------------------------------------------\n");
-
-                Entry e = file.getEntryAtIndex(i);
-                sb.append(e.toString(i));
+            return;
+        }
+        EntryCursor cursor = file.cursor(Math.max(1, Integer.getInteger("safepass.list.pageSize", DEFAULT_PAGE_SIZE)));
+        while (cursor.hasNext()) {
+            int first = cursor.getPosition();
+            List<Entry> page = cursor.nextPage();
+            for (int i = 0; i < page.size(); i++) {
+                System.out.print(ENTRY_SEPARATOR + page.get(i).toString(first + i));
+            }
+            System.out.flush();
+            if (cursor.hasNext()) {
+                System.out.println("Showing entries " + (first + 1) + "-" + cursor.getPosition() + " of "
+                        + file.getSizeOfEntries() + ". Press enter for more or type q to stop.");
+                if (scan.nextLine().trim().equalsIgnoreCase("q")) {
+                    return;
+                }
             }
-            System.out.print(sb);
         }
     }
 
     /**
      * @MODIFIES: file
-     * @EFFECTS: takes user input and assigns it to a new entry object which is added to file
+     * @EFFECTS: takes user input and assigns it to a new entry object which is added to file, unless a load is
+     * running
      */
     private void createEntry() {
+        if (loadRunning("adding an entry")) {
+            return;
+        }
         String name = editFields("name");
         String username = editFields("username");
         Password password = handlePasswordPrompts();
@@ -213,17 +333,12 @@ public class PasswordManager {
         Input i = Input.findCorrespondingEnum(input);
 
         if (i == PASSWORD) {
-            ArrayList<Boolean> characterTypesBoolean = promptAndStoreInput();
-            System.out.println("How many characters do you want?");
-            int length = nextInt();
-            passwordText =
-                    passwordGenerator.generatePassword(characterTypesBoolean,
-                            length);
+            passwordText = generatePolicyPassword();
         } else if (i == PASSPHRASE) {
-            System.out.println(
-                    "How many words do you want your passphrase to be?");
+            System.out.println(String.format("How many words do you want your passphrase to be? "
+                    + "Each word adds %.1f bits.", Wordlist.builtIn().getEntropyPerWord()));
             int words = nextInt();
-            passwordText = passwordGenerator.generatePassphrase("-", words);
+            passwordText = PasswordGenerator.generatePassphrase("-", words);
         } else {
             System.out.println(
                     "Sorry, I didn't understand that. Please try again.");
@@ -233,6 +348,22 @@ public class PasswordManager {
         return new Password(passwordText);
     }
 
+    /**
+     * @EFFECTS: asks for the character types and length and returns a password with at least one character of each
+     * chosen type, asking again if the length is too short for that
+     */
+    private String generatePolicyPassword() {
+        ArrayList<Boolean> characterTypesBoolean = promptAndStoreInput();
+        System.out.println("How many characters do you want?");
+        int length = nextInt();
+        List<PasswordGenerator.CharacterTypes> types = passwordGenerator.addCharacterTypes(characterTypesBoolean);
+        if (length < types.size()) {
+            System.out.println("The password needs at least one character of each type you chose.");
+            return generatePolicyPassword();
+        }
+        return passwordGenerator.generatePassword(PasswordPolicy.atLeastOneOf(types, length));
+    }
+
     /**
      * @EFFECTS: collects user input for the different character types that are possible in the generation of the
      * password and stores those values into a boolean arraylist
@@ -297,41 +428,323 @@ public class PasswordManager {
     }
 
     /**
-     * @EFFECTS: saves the file object
+     * @EFFECTS: prints the timers and counters collected so far and dumps them as JSON to METRICS_STORE; offers to
+     * turn metrics on if they are disabled
      */
-    private void saveFile() {
+    private void showStats() {
+        if (!Metrics.isEnabled()) {
+            System.out.println("Metrics are disabled. Do you want to enable them?");
+            Metrics.setEnabled(convertInputToBoolean());
+            return;
+        }
+        System.out.print(Metrics.format());
         try {
-            if (masterPassword == null) {
-                System.out.println("Enter your master password: ");
-                masterPassword = scan.nextLine();
+            Files.write(Paths.get(METRICS_STORE),
+                    Metrics.toJson().getBytes(StandardCharsets.UTF_8));
+            System.out.println("Saved statistics to " + METRICS_STORE);
+        } catch (IOException e) {
+            System.out.println("Unable to write to file: " + METRICS_STORE);
+        }
+    }
+
+    /**
+     * @EFFECTS: prints every password that is used by more than one entry along with the names of those entries
+     */
+    private void showReusedPasswords() {
+        List<List<Entry>> clusters = reuseAnalyzer.getReusedClusters();
+        if (clusters.isEmpty()) {
+            System.out.println("No password is used by more than one entry.");
+        }
+        for (List<Entry> cluster : clusters) {
+            StringBuilder sb = new StringBuilder("A password is shared by " + cluster.size() + " entries: ");
+            for (int i = 0; i < cluster.size(); i++) {
+                sb.append(i == 0 ? "" : ", ").append(cluster.get(i).getName());
             }
-            jsonWriter.open();
-            jsonWriter.write(file, masterPassword);
-            jsonWriter.close();
-            System.out.println("Saved file to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
-            System.out.println("Unable to write to file: " + JSON_STORE);
+            System.out.println(sb);
+        }
+    }
+
+    /**
+     * @EFFECTS: asks for a sorted binary file of SHA-1 or NTLM hashes and prints, on the background thread, the
+     * entries whose password appears in it
+     */
+    private void checkBreaches() {
+        System.out.println("Enter the path of the breached password hashes: ");
+        Path corpus = Paths.get(scan.nextLine());
+        System.out.println("Are the hashes NTLM rather than SHA-1?");
+        BreachCorpus.HashType type = convertInputToBoolean() ? BreachCorpus.HashType.NTLM : BreachCorpus.HashType.SHA1;
+        backgroundTasks.submit("Checking breaches", listener -> {
+            try (BreachCorpus breaches = new BreachCorpus(corpus, type)) {
+                List<Entry> breached = breaches.findBreached(file);
+                System.out.println(breached.size() + " of your entries use a breached password.");
+                breached.forEach(entry -> System.out.println("Breached: " + entry.getName()));
+            } catch (IOException e) {
+                System.out.println("Unable to read from file: " + corpus);
+            }
+        });
+    }
+
+    /**
+     * @EFFECTS: prints the progress of the running load or save, if any
+     */
+    private void showStatus() {
+        String progress = backgroundTasks.describeProgress();
+        System.out.println(progress == null ? "No load or save is running." : progress);
+    }
+
+    /**
+     * @EFFECTS: saves the file if it changed since it was last saved, such as by edits whose autosave was still
+     * waiting for the user to pause; asks first if the master password is not known, so the changes can be discarded
+     */
+    private void saveBeforeExit() {
+        if (loading || !autosave.isDirty()) {
+            return;
         }
+        if (masterPassword == null) {
+            System.out.println("You have unsaved changes. Do you want to save them before exiting?");
+            if (!convertInputToBoolean()) {
+                return;
+            }
+        }
+        saveFile();
+    }
+
+    /**
+     * @EFFECTS: waits for a running load or save to finish before the application exits
+     */
+    private void finishBackgroundTasks() {
+        if (backgroundTasks.isBusy()) {
+            System.out.println("Waiting for the background load or save to finish...");
+        }
+        backgroundTasks.shutdown();
     }
 
     /**
      * @MODIFIES: this
-     * @EFFECTS: loads saved file object. If the passwords do not match, prints error message and nulls out
-     * masterPassword. This is important since it ensures the program prompts the user for a password if they end up
-     * saving after this instead of using the incorrect password value.
+     * @EFFECTS: asks for the current master password or a recovery key and a new master password, and makes the new
+     * one the master password of the saved file on the background thread by rewrapping its key, without sealing the
+     * entries again; the file is saved with the new password from then on. If the file was never saved, only the
+     * password it will be saved with changes
      */
-    private void loadFile() {
-        try {
+    private void changeMasterPassword() {
+        if (loadRunning("changing the master password")) {
+            return;
+        }
+        System.out.println("Enter your current master password or a recovery key: ");
+        String secret = scan.nextLine();
+        System.out.println("Enter your new master password: ");
+        String newPassword = scan.nextLine();
+        if (!Files.exists(Paths.get(JSON_STORE))) {
+            masterPassword = newPassword;
+            System.out.println("Your file will be saved with the new master password.");
+            return;
+        }
+        backgroundTasks.submit("Changing the master password", listener -> {
+            try {
+                new VaultRekeyer(JSON_STORE).changePassword(secret, newPassword);
+                masterPassword = newPassword;
+                System.out.println("Changed the master password of " + JSON_STORE);
+            } catch (IOException e) {
+                System.out.println("Unable to write to file: " + JSON_STORE);
+            } catch (GeneralSecurityException e) {
+                System.out.println(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @EFFECTS: adds a recovery key to the saved file on the background thread and shows it once
+     */
+    private void addRecoveryKey() {
+        if (loadRunning("adding a recovery key")) {
+            return;
+        }
+        if (!Files.exists(Paths.get(JSON_STORE))) {
+            System.out.println("Save your file before adding a recovery key.");
+            return;
+        }
+        String password = askForMasterPassword();
+        backgroundTasks.submit("Adding a recovery key", listener -> {
+            try {
+                String recoveryKey = new VaultRekeyer(JSON_STORE).addRecoveryKey(password);
+                System.out.println("Your recovery key is:\n" + recoveryKey + "\nWrite it down and keep it safe; it "
+                        + "unlocks your file in place of your master password and replaces any earlier recovery key.");
+            } catch (IOException e) {
+                System.out.println("Unable to write to file: " + JSON_STORE);
+            } catch (GeneralSecurityException e) {
+                System.out.println(e.getMessage());
+                masterPassword = null;
+            }
+        });
+    }
+
+    /**
+     * @EFFECTS: saves the file object on the background thread
+     */
+    private void saveFile() {
+        if (loadRunning("saving")) {
+            return;
+        }
+        String password = askForMasterPassword();
+        long modificationCount = file.getModificationCount();
+        backgroundTasks.submit("Saving",
+                listener -> writeFile(password, modificationCount, listener));
+    }
+
+    /**
+     * @EFFECTS: returns true, after asking the user to wait, if a load is running, so action cannot be started yet
+     */
+    private boolean loadRunning(String action) {
+        boolean running = loading;
+        if (running) {
+            System.out.println("Wait for the load to finish before " + action + ".");
+        }
+        return running;
+    }
+
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: asks for the master password if it is not known yet, and returns it
+     */
+    private String askForMasterPassword() {
+        if (masterPassword == null) {
             System.out.println("Enter your master password: ");
             masterPassword = scan.nextLine();
-            file = jsonReader.read(masterPassword, JSON_STORE);
+        }
+        return masterPassword;
+    }
+
+    /**
+     * @EFFECTS: starts saving the file on the background thread if the master password is known and no load is
+     * running, and returns true; returns false otherwise. Called by the autosave scheduler once a burst of changes has
+     * settled
+     */
+    private boolean autosave(long modificationCount) {
+        String password = masterPassword;
+        if (password == null || loading) {
+            return false;
+        }
+        backgroundTasks.submit("Autosaving",
+                listener -> writeFile(password, modificationCount, listener));
+        return true;
+    }
+
+    /**
+     * @EFFECTS: writes the file object to JSON_STORE and tells the autosave scheduler whether it worked; forgets the
+     * master password if it does not unlock the file already saved there
+     */
+    private void writeFile(String password, long modificationCount,
+                           ProgressListener listener) {
+        try {
+            jsonWriter.open();
+            try {
+                jsonWriter.write(file, password, listener);
+            } finally {
+                jsonWriter.close();
+            }
+            autosave.markSaved(modificationCount);
+            System.out.println("Saved file to " + JSON_STORE);
+        } catch (IOException e) {
+            autosave.saveFailed();
+            if (e.getCause() instanceof GeneralSecurityException) {
+                masterPassword = null;
+                System.out.println("That master password does not unlock " + JSON_STORE);
+            } else {
+                System.out.println("Unable to write to file: " + JSON_STORE);
+            }
+        }
+    }
+
+    /**
+     * @MODIFIES: file
+     * @EFFECTS: asks for a CSV or JSON export and adds its entries to file on the background thread, unless a load is
+     * running
+     */
+    private void importEntries() {
+        if (loadRunning("importing")) {
+            return;
+        }
+        System.out.println("Enter the path of the CSV or JSON file to import: ");
+        String source = scan.nextLine();
+        backgroundTasks.submit("Importing", listener -> {
+            EntryImporter importer = new EntryImporter();
+            try {
+                int imported = importer.importFrom(Paths.get(source), file);
+                System.out.println("Imported " + imported + " entries from " + source + ", skipped "
+                        + importer.getSkippedCount() + " without a password.");
+            } catch (IOException e) {
+                System.out.println("Unable to import from file: " + source);
+            }
+        });
+    }
+
+    /**
+     * @EFFECTS: asks where to export the entries and writes them there on the background thread, as plaintext CSV
+     * once the user confirms if the path ends in .csv and as a vault encrypted with a new password otherwise
+     */
+    private void exportEntries() {
+        System.out.println("Enter the path to export to (.csv for plaintext, anything else for an encrypted vault): ");
+        Path destination = Paths.get(scan.nextLine());
+        boolean csv = destination.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        String exportPassword = null;
+        if (csv) {
+            System.out.println("The CSV file will hold your passwords in plaintext. Do you want to continue?");
+            if (!convertInputToBoolean()) {
+                return;
+            }
+        } else {
+            System.out.println("Enter a password for the exported vault: ");
+            exportPassword = scan.nextLine();
+        }
+        String password = exportPassword;
+        backgroundTasks.submit("Exporting", listener -> writeExport(destination, password));
+    }
+
+    /**
+     * @EFFECTS: writes the entries to destination, encrypted with password unless it is null
+     */
+    private void writeExport(Path destination, String password) {
+        try {
+            EntryExporter exporter = new EntryExporter();
+            int count = password == null ? exporter.exportCsv(file, destination)
+                    : exporter.exportEncrypted(file, password, destination);
+            System.out.println("Exported " + count + " entries to " + destination);
         } catch (IOException e) {
-            System.out.println("Unable to read from file: " + JSON_STORE);
-            masterPassword = null;
-        } catch (GeneralSecurityException e) {
-            System.out.println(e.getMessage());
-            masterPassword = null;
+            System.out.println("Unable to write to file: " + destination);
         }
     }
 
+    /**
+     * @MODIFIES: this
+     * @EFFECTS: loads saved file object on the background thread; the entries replace those in file once all of them
+     * are decrypted. Changes to the entries and saves are refused until the load is over, so none are lost to it, and
+     * the password only becomes masterPassword once it has loaded the file, so a mistyped password is never used to
+     * save. If the passwords do not match, prints error message and nulls out masterPassword, so the program prompts
+     * the user for a password if they end up saving after this.
+     */
+    private void loadFile() {
+        if (loadRunning("loading again")) {
+            return;
+        }
+        System.out.println("Enter your master password: ");
+        String password = scan.nextLine();
+        loading = true;
+        long modificationCount = file.getModificationCount();
+        backgroundTasks.submit("Loading", listener -> {
+            try {
+                jsonReader.readInto(password, JSON_STORE, file, listener);
+                masterPassword = password;
+                autosave.markSaved(modificationCount);
+            } catch (IOException e) {
+                System.out.println("Unable to read from file: " + JSON_STORE);
+                masterPassword = null;
+            } catch (GeneralSecurityException e) {
+                System.out.println(e.getMessage());
+                masterPassword = null;
+            } finally {
+                loading = false;
+            }
+        });
+    }
+
 }
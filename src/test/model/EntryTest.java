@@ -2,11 +2,15 @@ package model;
 
 import model.entries.Entry;
 import model.entries.Password;
+import model.entries.StrengthEstimator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class EntryTest {
     private Entry testEntry;
@@ -38,4 +42,21 @@ public class EntryTest {
         assertFalse(falseEntry2.equals(testEntry));
     }
 
+    @Test
+    void testContextWords() {
+        assertEquals(List.of("google", "gmail", "accounts"),
+                StrengthEstimator.contextWords("Google", "a@gmail.com", "https://www.accounts.google.com", null));
+        assertEquals(List.of("google", "gmail"), testEntry.getPassword().getContext());
+    }
+
+    @Test
+    void testPasswordScoredAgainstEntry() {
+        Password alone = new Password("Zephyrion!Quillbrook");
+        Password inEntry = new Password("Zephyrion!Quillbrook");
+        new Entry("Zephyrion", "quillbrook@example.org", inEntry, "zephyrion.example.org", "");
+
+        assertTrue(inEntry.getEntropy() < alone.getEntropy());
+        assertTrue(inEntry.findScore() < alone.findScore());
+    }
+
 }
@@ -2,6 +2,9 @@ package model;
 
 import model.event.Event;
 import model.event.EventLog;
+import model.event.EventType;
+import model.event.OverflowPolicy;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -30,6 +33,11 @@ public class EventLogTest {
 		el.logEvent(e3);
 	}
 	
+	@AfterEach
+	public void restoreDefaults() {
+		EventLog.getInstance().configure(EventLog.DEFAULT_CAPACITY, OverflowPolicy.OVERWRITE_OLDEST);
+	}
+	
 	@Test
 	public void testLogEvent() {	
 		List<Event> l = new ArrayList<Event>();
@@ -53,4 +61,145 @@ public class EventLogTest {
 		assertEquals("Event log cleared.", itr.next().getDescription());
 		assertFalse(itr.hasNext());
 	}
+
+	@Test
+	public void testOverwriteOldestWhenFull() {
+		EventLog el = EventLog.getInstance();
+		el.configure(4, OverflowPolicy.OVERWRITE_OLDEST);
+		el.clear();
+		for (int i = 0; i < 10; i++) {
+			el.logEvent(new Event("E" + i));
+		}
+		
+		List<String> l = new ArrayList<String>();
+		for (Event next : el) {
+			l.add(next.getDescription());
+		}
+		
+		assertEquals(4, el.getCapacity());
+		assertEquals(List.of("E6", "E7", "E8", "E9"), l);
+	}
+	
+	@Test
+	public void testDropNewestWhenFull() {
+		EventLog el = EventLog.getInstance();
+		el.configure(4, OverflowPolicy.DROP_NEWEST);
+		el.clear();
+		long droppedBefore = el.getDroppedCount();
+		for (int i = 0; i < 10; i++) {
+			el.logEvent(new Event("E" + i));
+		}
+		
+		Iterator<Event> itr = el.iterator();
+		assertEquals("Event log cleared.", itr.next().getDescription());
+		assertEquals("E0", itr.next().getDescription());
+		assertEquals(4, el.size());
+		assertEquals(droppedBefore + 7, el.getDroppedCount());
+	}
+	
+	@Test
+	public void testConcurrentAppends() throws InterruptedException {
+		EventLog el = EventLog.getInstance();
+		el.configure(1 << 16, OverflowPolicy.DROP_NEWEST);
+		el.clear();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					el.logEvent(new Event("concurrent"));
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		
+		int count = 0;
+		for (Event ignored : el) {
+			count++;
+		}
+		assertEquals(4001, count);
+		assertEquals(4001, el.size());
+		assertEquals(4001, el.getEventsBetween(Long.MIN_VALUE, Long.MAX_VALUE).size());
+	}
+
+	@Test
+	public void testEventsBetween() throws InterruptedException {
+		EventLog el = EventLog.getInstance();
+		el.clear();
+		Event before = new Event("before");
+		el.logEvent(before);
+		Thread.sleep(20);
+		long from = System.currentTimeMillis();
+		Event during = new Event("during");
+		el.logEvent(during);
+		Thread.sleep(20);
+		long to = System.currentTimeMillis();
+		Thread.sleep(20);
+		el.logEvent(new Event("after"));
+		
+		assertEquals(List.of(during), el.getEventsBetween(from, to));
+		assertEquals(4, el.getEventsBetween(0, Long.MAX_VALUE).size());
+		assertTrue(el.getEventsBetween(0, from - 10).contains(before));
+	}
+	
+	@Test
+	public void testEventsBetweenAppendedOutOfOrder() throws InterruptedException {
+		EventLog el = EventLog.getInstance();
+		el.clear();
+		Thread.sleep(20);
+		Event stamped = new Event("stamped first, appended last");
+		Thread.sleep(20);
+		long from = System.currentTimeMillis();
+		for (int i = 0; i < 10; i++) {
+			el.logEvent(new Event("E" + i));
+		}
+		el.logEvent(stamped);
+		long to = System.currentTimeMillis();
+
+		List<Event> logged = el.getEventsBetween(from, to);
+		assertEquals(11, logged.size());
+		assertEquals(stamped, logged.get(10));
+		assertTrue(el.getEventsBetween(stamped.getTimestamp(), from - 1).isEmpty());
+	}
+	
+	@Test
+	public void testEventsOfTypeAndEntry() {
+		EventLog el = EventLog.getInstance();
+		el.clear();
+		el.addEntry(1, "Google");
+		el.addEntry(2, "Reddit");
+		el.logEvent(new Event(EventType.AUTHENTICATION_FAILED));
+		el.removeEntry(0, "Google");
+		
+		assertEquals(2, el.getEventsOfType(EventType.ENTRY_ADDED).size());
+		assertEquals(1, el.getEventsOfType(EventType.AUTHENTICATION_FAILED).size());
+		assertEquals(1, el.getEventsOfType(EventType.LOG_CLEARED).size());
+		assertTrue(el.getEventsOfType(EventType.ENTRIES_SAVED).isEmpty());
+		
+		List<Event> google = el.getEventsForEntry("Google");
+		assertEquals(2, google.size());
+		assertEquals(EventType.ENTRY_ADDED, google.get(0).getType());
+		assertEquals(EventType.ENTRY_REMOVED, google.get(1).getType());
+		assertTrue(el.getEventsForEntry("Missing").isEmpty());
+	}
+	
+	@Test
+	public void testEventsForEntryOnlyReturnsRetainedEvents() {
+		EventLog el = EventLog.getInstance();
+		el.configure(4, OverflowPolicy.OVERWRITE_OLDEST);
+		el.clear();
+		el.addEntry(1, "Google");
+		for (int i = 0; i < 4; i++) {
+			el.addEntry(i + 2, "Other" + i);
+		}
+		el.removeEntry(0, "Google");
+		
+		List<Event> google = el.getEventsForEntry("Google");
+		assertEquals(1, google.size());
+		assertEquals(EventType.ENTRY_REMOVED, google.get(0).getType());
+		el.clear();
+		assertTrue(el.getEventsForEntry("Google").isEmpty());
+	}
 }
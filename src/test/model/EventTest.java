@@ -8,6 +8,7 @@ import java.util.Calendar;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -41,6 +42,15 @@ public class EventTest {
 //        assertEquals(1, d.getTime());
 	}
 
+	@Test
+	public void testEqualsIncludesTime() throws InterruptedException {
+		Thread.sleep(5);
+		Event later = new Event("Sensor open at door");
+		assertNotEquals(e, later);
+		assertEquals(e, e);
+		assertNotEquals(e, new Event("Sensor closed at door"));
+	}
+
 	@Test
 	public void testToString() {
 		assertEquals(d.toString() + "\n" + "Sensor open at door", e.toString());
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import model.entries.Entry;
+import model.entries.EntryCursor;
 import model.entries.File;
 import model.entries.Password;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileTest {
@@ -90,5 +92,39 @@ public class FileTest {
         assertTrue(loadedFromJson.size() == entryArrayList.size());
     }
 
-}
+    @Test
+    void testFindEntries() {
+        testList = new File(entryArrayList);
+
+        assertEquals(List.of(0), testList.findEntries("BING"));
+        assertEquals(List.of(0, 1), testList.findEntries("outlook"));
+        assertEquals(List.of(1), testList.findEntries("adobe.ca"));
+        assertTrue(testList.findEntries("google").isEmpty());
+    }
+
+    @Test
+    void testGetPage() {
+        testList = new File(entryArrayList);
 
+        assertEquals(List.of(e1), testList.getPage(0, 1));
+        assertEquals(List.of(e2), testList.getPage(1, 5));
+        assertTrue(testList.getPage(2, 5).isEmpty());
+        assertTrue(testList.getPage(0, 0).isEmpty());
+    }
+
+    @Test
+    void testCursor() {
+        testList = new File(entryArrayList);
+        testList.addEntry(e1);
+        EntryCursor cursor = testList.cursor(2);
+
+        assertTrue(cursor.hasNext());
+        assertEquals(List.of(e1, e2), cursor.nextPage());
+        assertEquals(2, cursor.getPosition());
+        assertTrue(cursor.hasNext());
+        assertEquals(List.of(e1), cursor.nextPage());
+        assertFalse(cursor.hasNext());
+        assertTrue(cursor.nextPage().isEmpty());
+    }
+
+}
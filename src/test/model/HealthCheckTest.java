@@ -0,0 +1,82 @@
+package model;
+
+import model.analysis.HealthCheck;
+import model.analysis.HealthReport;
+import model.analysis.ReuseAnalyzer;
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HealthCheckTest {
+    private File file;
+    private ReuseAnalyzer reuse;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void runBefore() {
+        pool = new ForkJoinPool(4);
+        file = new File();
+        file.addEntry(new Entry("Strong", "me", new Password("vK8#qz!Lw2@rT9$mXp4&"), "strong.com", "none"));
+        file.addEntry(new Entry("Weak", "me", new Password("password"), "weak.com", "none"));
+        file.addEntry(new Entry("Reused", "me", new Password("password"), "reused.com", "none"));
+        file.addEntry(new Entry("Short", "me", new Password("x9#Kq"), "short.com", "none"));
+        reuse = new ReuseAnalyzer(file);
+    }
+
+    @AfterEach
+    void runAfter() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testReport() {
+        HealthReport report = new HealthCheck(pool, reuse, 10).run(file, (processed, total) -> { });
+
+        assertEquals(4, report.getFindings().size());
+        assertEquals("Strong", report.getFindings().get(0).getEntry().getName());
+        assertEquals(HealthReport.MAX_SCORE, report.getFindings().get(0).getScore());
+        assertEquals(2, report.getReusedCount());
+        assertTrue(report.getShortCount() >= 3);
+        assertTrue(report.getWeakCount() >= 2);
+        int total = 0;
+        for (int score = 0; score <= HealthReport.MAX_SCORE; score++) {
+            total += report.getScoreCount(score);
+        }
+        assertEquals(4, total);
+        List<HealthReport.Finding> worst = report.getWorst();
+        assertEquals(3, worst.size());
+        assertEquals("Weak", worst.get(0).getEntry().getName());
+        assertEquals("Reused", worst.get(1).getEntry().getName());
+        assertTrue(report.format().contains("Entry #2 Weak"));
+    }
+
+    @Test
+    void testOrderIsStableAndProgressReachesTotal() {
+        for (int i = 0; i < 300; i++) {
+            file.addEntry(new Entry("Filler " + i, "me", new Password("filler-" + i), "x.com", "none"));
+        }
+        List<Integer> progress = new ArrayList<>();
+        HealthReport report = new HealthCheck(pool, reuse, 2).run(file, (processed, total) -> {
+            synchronized (progress) {
+                progress.add(processed);
+            }
+        });
+
+        for (int i = 0; i < report.getFindings().size(); i++) {
+            assertEquals(i, report.getFindings().get(i).getIndex());
+            assertEquals(file.getEntryAtIndex(i), report.getFindings().get(i).getEntry());
+        }
+        assertEquals(304, (int) progress.stream().max(Integer::compare).get());
+        assertEquals(2, report.getWorst().size());
+    }
+}
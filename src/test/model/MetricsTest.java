@@ -0,0 +1,60 @@
+package model;
+
+import model.entries.Password;
+import model.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+
+    @BeforeEach
+    void runBefore() {
+        Metrics.setEnabled(true);
+        Metrics.reset();
+    }
+
+    @AfterEach
+    void runAfter() {
+        Metrics.setEnabled(true);
+        Metrics.reset();
+    }
+
+    @Test
+    void testTimerRecordsWhenEnabled() {
+        new Password("password").findScore();
+        new Password("correct-horse-battery-staple").findScore();
+
+        assertEquals(2, Metrics.PASSWORD_SCORE.getCount());
+        assertTrue(Metrics.PASSWORD_SCORE.getTotalNanos() >= Metrics.PASSWORD_SCORE.getMaxNanos());
+        assertTrue(Metrics.PASSWORD_SCORE.getMaxNanos() > 0);
+    }
+
+    @Test
+    void testNothingRecordedWhenDisabled() {
+        Metrics.setEnabled(false);
+        new Password("password").findScore();
+        Metrics.BYTES_READ.add(100);
+
+        assertEquals(0, Metrics.PASSWORD_SCORE.getCount());
+        assertEquals(0, Metrics.BYTES_READ.getValue());
+        assertEquals(0, Metrics.PASSWORD_SCORE.start());
+    }
+
+    @Test
+    void testCounterAndJson() throws IOException {
+        Metrics.BYTES_WRITTEN.add(512);
+        Metrics.FAILED_AUTHENTICATIONS.increment();
+
+        String json = Metrics.toJson();
+        assertTrue(json.contains("\"bytes.written\" : 512"));
+        assertTrue(json.contains("\"authentication.failed\" : 1"));
+        assertTrue(json.contains("\"password.score\""));
+        assertTrue(Metrics.format().contains("keyset.derivation"));
+    }
+}
@@ -1,12 +1,21 @@
 package model;
 
 import model.entries.PasswordGenerator;
+import model.entries.PasswordPolicy;
+import model.entries.Wordlist;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static model.entries.PasswordGenerator.CharacterTypes;
 import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.StringReader;
+import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 public class PasswordGeneratorTest {
     PasswordGenerator pg;
@@ -75,7 +84,7 @@ public class PasswordGeneratorTest {
     @Test
     void testGenerateRandomPasswordAllTypes() {
         HashSet<Character> allTypes =
-                addStringToSet("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLNOPQRSTUVWXYZ1234567890!@#$%^&*()");
+                addStringToSet("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ1234567890!@#$%^&*()");
         ArrayList<CharacterTypes> ct = new ArrayList<>();
         ct.add(CharacterTypes.LOWERCASE_ALPHA);
         ct.add(CharacterTypes.UPPERCASE_ALPHA);
@@ -89,7 +98,7 @@ public class PasswordGeneratorTest {
 
     @Test
     void testGenerateRandomPasswordMultipleTypes() {
-        HashSet<Character> upperCaseAndSymbols = addStringToSet("ABCDEFGHIJKLNOPQRSTUVWXYZ!@#$%^&*()");
+        HashSet<Character> upperCaseAndSymbols = addStringToSet("ABCDEFGHIJKLMNOPQRSTUVWXYZ!@#$%^&*()");
         ArrayList<CharacterTypes> ct = new ArrayList<>();
         ct.add(CharacterTypes.UPPERCASE_ALPHA);
         ct.add(CharacterTypes.SYMBOLS);
@@ -98,6 +107,78 @@ public class PasswordGeneratorTest {
         assertTrue(setContainsAllCharacters(random, upperCaseAndSymbols));
     }
 
+    @Test
+    void testPolicyMinimumsAndAmbiguous() {
+        Map<CharacterTypes, Integer> minimums = new EnumMap<>(CharacterTypes.class);
+        minimums.put(CharacterTypes.LOWERCASE_ALPHA, 0);
+        minimums.put(CharacterTypes.NUMERIC, 3);
+        minimums.put(CharacterTypes.SYMBOLS, 2);
+        PasswordPolicy policy = new PasswordPolicy(8, minimums, true, PasswordPolicy.UNLIMITED);
+
+        for (int i = 0; i < 200; i++) {
+            String password = pg.generatePassword(policy);
+            assertEquals(8, password.length());
+            assertTrue(password.chars().filter(Character::isDigit).count() >= 3);
+            assertTrue(password.chars().filter(c -> "!@#$%^&*()".indexOf(c) >= 0).count() >= 2);
+            assertTrue(password.chars().noneMatch(c -> PasswordPolicy.AMBIGUOUS.indexOf(c) >= 0));
+            assertTrue(password.chars().noneMatch(Character::isUpperCase));
+        }
+    }
+
+    @Test
+    void testPolicyMaxRepeats() {
+        Map<CharacterTypes, Integer> minimums = new EnumMap<>(CharacterTypes.class);
+        minimums.put(CharacterTypes.NUMERIC, 10);
+        PasswordPolicy policy = new PasswordPolicy(10, minimums, false, 1);
+
+        String password = pg.generatePassword(policy);
+        assertEquals(10, password.chars().distinct().count());
+        assertThrows(IllegalArgumentException.class, () -> new PasswordPolicy(11, minimums, false, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordPolicy(10, minimums, true, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> PasswordPolicy.atLeastOneOf(List.of(CharacterTypes.NUMERIC, CharacterTypes.SYMBOLS), 1));
+    }
+
+    @Test
+    void testAlphabetSizes() {
+        PasswordPolicy policy = PasswordPolicy.atLeastOneOf(Arrays.asList(CharacterTypes.values()), 8);
+
+        assertEquals(26, policy.alphabet(CharacterTypes.LOWERCASE_ALPHA).length());
+        assertEquals(26, policy.alphabet(CharacterTypes.UPPERCASE_ALPHA).length());
+        assertEquals(10, policy.alphabet(CharacterTypes.NUMERIC).length());
+        assertEquals(10, policy.alphabet(CharacterTypes.SYMBOLS).length());
+        assertEquals(26, policy.alphabet(CharacterTypes.UPPERCASE_ALPHA).chars().distinct().count());
+    }
+
+    @Test
+    void testWordlistRead() throws IOException {
+        Wordlist wordlist = Wordlist.read("dice", new StringReader(
+                "# a comment\n11111\tabacus\n\n11112\tabdomen\n  ca\u00f1\u00f3n \nabacus\n"));
+
+        assertEquals(3, wordlist.size());
+        assertEquals("abacus", wordlist.getWord(0));
+        assertEquals("abdomen", wordlist.getWord(1));
+        assertEquals("ca\u00f1\u00f3n", wordlist.getWord(2));
+        assertEquals(Math.log(3) / Math.log(2), wordlist.getEntropyPerWord(), 1e-9);
+        assertThrows(IOException.class, () -> Wordlist.read("tiny", new StringReader("one\none\n")));
+    }
+
+    @Test
+    void testBuiltInPassphrase() {
+        Wordlist wordlist = Wordlist.builtIn();
+        assertEquals(7776, wordlist.size());
+        assertEquals(12.925, wordlist.getEntropyPerWord(), 1e-3);
+
+        HashSet<String> words = new HashSet<>();
+        for (int i = 0; i < wordlist.size(); i++) {
+            words.add(wordlist.getWord(i));
+        }
+        List<String> chosen = Arrays.asList(PasswordGenerator.generatePassphrase("-", 6).split("-"));
+        assertEquals(6, chosen.size());
+        assertTrue(words.containsAll(chosen));
+        assertEquals(4, wordlist.generatePassphrase(" ", 4, new SecureRandom()).split(" ").length);
+    }
+
     /**
      * @REQUIRES: s is not null and not empty
      * @EFFECTS: adds all the characters of s to a hashset and returns the set
@@ -1,9 +1,16 @@
 package model;
 
 import model.entries.Password;
+import model.entries.StrengthEstimator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PasswordTest {
     Password password;
@@ -27,5 +34,21 @@ public class PasswordTest {
     void testFindScoreGoodPassword() {
         password = new Password("daf4u32508unv84b234072bd872eb0cf7w0f78b08e7r1240r7kd08k2");
         assertEquals(4, password.findScore());
+        assertFalse(password.isApproximate());
+    }
+
+    @Test
+    void testLongPasswordIsBoundedAndApproximate() {
+        StringBuilder secret = new StringBuilder();
+        while (secret.length() < 5000) {
+            secret.append("correct-horse-battery-staple-").append(secret.length());
+        }
+        Password prefix = new Password(secret.substring(0, StrengthEstimator.DEFAULT_MAX_LENGTH));
+        password = new Password(secret.toString());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> password.findScore());
+        assertTrue(password.isApproximate());
+        assertEquals(4, password.findScore());
+        assertTrue(password.getEntropy() > prefix.getEntropy());
     }
 }
@@ -0,0 +1,77 @@
+package model;
+
+import model.analysis.ReuseAnalyzer;
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReuseAnalyzerTest {
+    private File file;
+    private Entry bing;
+    private Entry adobe;
+    private Entry google;
+
+    @BeforeEach
+    void runBefore() {
+        file = new File();
+        bing = new Entry("Bing", "a@outlook.com", new Password("helloworld123"), "www.bing.ca", "none");
+        adobe = new Entry("adobe", "a@outlook.com", new Password("helloworld123"), "www.adobe.ca", "none");
+        google = new Entry("Google", "a@gmail.com", new Password("goodpassword"), "www.google.ca", "none");
+    }
+
+    @Test
+    void testExistingEntriesAreAnalyzed() {
+        file.addEntry(bing);
+        file.addEntry(google);
+        file.addEntry(adobe);
+        ReuseAnalyzer analyzer = new ReuseAnalyzer(file);
+
+        assertEquals(List.of(List.of(adobe, bing)), analyzer.getReusedClusters());
+        assertEquals(1, analyzer.countOthersSharing(bing));
+        assertEquals(0, analyzer.countOthersSharing(google));
+    }
+
+    @Test
+    void testIncrementalAddAndRemove() {
+        ReuseAnalyzer analyzer = new ReuseAnalyzer(file);
+        file.addEntry(bing);
+        assertTrue(analyzer.getReusedClusters().isEmpty());
+
+        file.addEntry(adobe);
+        file.addEntry(google);
+        Entry google2 = new Entry("Google 2", "b@gmail.com", new Password("goodpassword"), "www.google.ca", "none");
+        Entry google3 = new Entry("Google 3", "c@gmail.com", new Password("goodpassword"), "www.google.ca", "none");
+        file.addEntries(List.of(google2, google3));
+        List<List<Entry>> clusters = analyzer.getReusedClusters();
+        assertEquals(List.of(google, google2, google3), clusters.get(0));
+        assertEquals(List.of(adobe, bing), clusters.get(1));
+
+        file.removeEntry(0);
+        assertEquals(1, analyzer.getReusedClusters().size());
+        assertEquals(0, analyzer.countOthersSharing(adobe));
+        assertEquals(2, analyzer.countOthersSharing(google));
+    }
+
+    @Test
+    void testLoadReplacesEntries() {
+        file.addEntry(bing);
+        file.addEntry(adobe);
+        ReuseAnalyzer analyzer = new ReuseAnalyzer(file);
+
+        List<Entry> loaded = new ArrayList<>();
+        file.setEntries(loaded);
+        assertTrue(analyzer.getReusedClusters().isEmpty());
+        file.appendLoadedEntry(google);
+        file.appendLoadedEntry(new Entry("Other", "x", new Password("goodpassword"), "y", "z"));
+        assertEquals(1, analyzer.getReusedClusters().size());
+        assertEquals(1, analyzer.countOthersSharing(google));
+    }
+}
@@ -0,0 +1,41 @@
+package model;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.VaultGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VaultGeneratorTest {
+
+    @Test
+    void testGenerateFile() {
+        File file = new VaultGenerator(24, 40, 1).generateFile(25);
+        Set<String> names = new HashSet<>();
+
+        assertEquals(25, file.getSizeOfEntries());
+        for (Entry e : file.getEntries()) {
+            assertEquals(24, e.getPasswordText().length());
+            assertTrue(e.getNotes().length() >= 40);
+            assertTrue(e.getUrl().startsWith("https://www."));
+            names.add(e.getName());
+        }
+        assertEquals(25, names.size());
+    }
+
+    @Test
+    void testSameSeedSameLayout() {
+        Entry first = new VaultGenerator(12, 10, 7).generateEntry(3);
+        Entry second = new VaultGenerator(12, 10, 7).generateEntry(3);
+
+        assertEquals(first.getName(), second.getName());
+        assertEquals(first.getUsername(), second.getUsername());
+        assertEquals(first.getUrl(), second.getUrl());
+        assertEquals(first.getNotes(), second.getNotes());
+    }
+}
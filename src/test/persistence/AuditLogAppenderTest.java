@@ -0,0 +1,79 @@
+package persistence;
+
+import model.event.Event;
+import model.event.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLogAppenderTest {
+    private Path directory;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("audit");
+    }
+
+    @Test
+    void testWritesEventsOnClose() throws IOException {
+        Path log = directory.resolve("audit.log");
+        AuditLogAppender appender = new AuditLogAppender(log.toString());
+        appender.start();
+        appender.accept(new Event(EventType.ENTRY_ADDED, 1, "Google"));
+        appender.accept(new Event(EventType.ENTRIES_SAVED, "workroom.json"));
+        appender.close();
+
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith(" Added entry #1."));
+        assertFalse(lines.get(0).contains("Google"));
+        assertTrue(lines.get(1).endsWith(" Saved entries to workroom.json."));
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    void testRotatesByAgeOfFirstEvent() throws IOException {
+        Path log = directory.resolve("audit.log");
+        String old = Instant.now().minus(2, ChronoUnit.DAYS) + " Saved entries to workroom.json.\n";
+        Files.write(log, old.getBytes(StandardCharsets.UTF_8));
+        AuditLogAppender appender = new AuditLogAppender(log.toString(), Long.MAX_VALUE,
+                TimeUnit.DAYS.toMillis(1), 2);
+        appender.start();
+        appender.accept(new Event(EventType.ENTRIES_LOADED, "workroom.json"));
+        appender.accept(new Event(EventType.ENTRIES_SAVED, "workroom.json"));
+        appender.close();
+
+        assertEquals(List.of(old.trim()), Files.readAllLines(directory.resolve("audit.log.1")));
+        assertTrue(Files.readAllLines(log).get(0).endsWith(" Loaded entries from workroom.json."));
+    }
+
+    @Test
+    void testRotatesBySize() throws IOException, InterruptedException {
+        Path log = directory.resolve("audit.log");
+        AuditLogAppender appender = new AuditLogAppender(log.toString(), 10, Long.MAX_VALUE, 2);
+        appender.start();
+        for (int i = 0; i < 4; i++) {
+            appender.accept(new Event("Event number " + i));
+            Thread.sleep(300);
+        }
+        appender.close();
+
+        assertTrue(Files.exists(log));
+        assertTrue(Files.exists(directory.resolve("audit.log.1")));
+        assertTrue(Files.exists(directory.resolve("audit.log.2")));
+        assertFalse(Files.exists(directory.resolve("audit.log.3")));
+        assertTrue(Files.readAllLines(log).get(0).endsWith(" Event number 3"));
+    }
+}
@@ -0,0 +1,85 @@
+package persistence;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutosaveSchedulerTest {
+    private File file;
+    private List<Long> saves;
+    private AutosaveScheduler autosave;
+    private Entry entry;
+
+    @BeforeEach
+    void runBefore() {
+        file = new File();
+        saves = new CopyOnWriteArrayList<>();
+        autosave = new AutosaveScheduler(file, 100, 1000, count -> {
+            saves.add(count);
+            autosave.markSaved(count);
+            return true;
+        });
+        file.addListener(autosave);
+        entry = new Entry("Google", "a@gmail.com", new Password("password"), "www.google.com", "none");
+    }
+
+    @AfterEach
+    void runAfter() {
+        autosave.close();
+    }
+
+    @Test
+    void testBurstIsCoalescedIntoOneSave() throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            file.addEntry(entry);
+        }
+        assertTrue(autosave.isDirty());
+        Thread.sleep(400);
+
+        assertEquals(List.of(20L), saves);
+        assertFalse(autosave.isDirty());
+    }
+
+    @Test
+    void testNoSaveWhenClean() throws InterruptedException {
+        file.addEntry(entry);
+        autosave.markSaved(file.getModificationCount());
+        Thread.sleep(300);
+
+        assertTrue(saves.isEmpty());
+    }
+
+    @Test
+    void testMaxDelayForcesSave() throws InterruptedException {
+        for (int i = 0; i < 15; i++) {
+            file.addEntry(entry);
+            Thread.sleep(80);
+        }
+        Thread.sleep(300);
+
+        assertTrue(saves.size() >= 2);
+        assertEquals(15L, (long) saves.get(saves.size() - 1));
+    }
+
+    @Test
+    void testNotSavedWhenSaverDeclines() throws InterruptedException {
+        autosave.close();
+        file.removeListener(autosave);
+        autosave = new AutosaveScheduler(file, 50, 500, count -> false);
+        file.addListener(autosave);
+        file.addEntry(entry);
+        Thread.sleep(200);
+
+        assertTrue(autosave.isDirty());
+    }
+}
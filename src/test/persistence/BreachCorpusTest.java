@@ -0,0 +1,139 @@
+package persistence;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import model.security.Md4;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BreachCorpusTest {
+    private static final List<String> BREACHED = List.of("password", "123456", "qwerty", "letmein", "dragon");
+    private Path corpus;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        corpus = Files.createTempFile("corpus", ".bin");
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        Files.deleteIfExists(corpus);
+        Files.deleteIfExists(Paths.get(corpus + ".bloom"));
+    }
+
+    private void writeCorpus(BreachCorpus.HashType type, List<String> passwords) throws IOException {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String password : passwords) {
+            sorted.add(hex(type.hash(password)) + ":42");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BreachCorpus.convertHexList(new BufferedReader(new StringReader(String.join("\n", sorted))), out, type);
+        Files.write(corpus, out.toByteArray());
+    }
+
+    private static String hex(byte[] bytes) {
+        return String.format("%0" + bytes.length * 2 + "X", new BigInteger(1, bytes));
+    }
+
+    @Test
+    void testMd4() {
+        assertEquals("31D6CFE0D16AE931B73C59D7E0C089C0", hex(Md4.digest(new byte[0])));
+        assertEquals("A448017AAF21D8525FC10AE87AA6729D", hex(Md4.digest("abc".getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("E33B4DDC9C38F2199C3E7B164FCC0536", hex(Md4.digest(
+                "12345678901234567890123456789012345678901234567890123456789012345678901234567890"
+                        .getBytes(StandardCharsets.US_ASCII))));
+        assertEquals("8846F7EAEE8FB117AD06BDD830B7586C", hex(BreachCorpus.HashType.NTLM.hash("password")));
+    }
+
+    @Test
+    void testSha1Lookups() throws IOException {
+        List<String> passwords = new ArrayList<>(BREACHED);
+        for (int i = 0; i < 1000; i++) {
+            passwords.add("filler" + i);
+        }
+        writeCorpus(BreachCorpus.HashType.SHA1, passwords);
+
+        try (BreachCorpus breaches = new BreachCorpus(corpus, BreachCorpus.HashType.SHA1)) {
+            assertEquals(1005, breaches.size());
+            for (String password : passwords) {
+                assertTrue(breaches.isBreached(password));
+            }
+            assertFalse(breaches.isBreached("correct horse battery staple"));
+            assertFalse(breaches.isBreached("filler1000"));
+        }
+        assertTrue(Files.exists(Paths.get(corpus + ".bloom")));
+        try (BreachCorpus reopened = new BreachCorpus(corpus, BreachCorpus.HashType.SHA1)) {
+            assertTrue(reopened.isBreached("dragon"));
+        }
+    }
+
+    @Test
+    void testDamagedFilterIsRebuilt() throws IOException {
+        writeCorpus(BreachCorpus.HashType.SHA1, BREACHED);
+        Path bloom = Paths.get(corpus + ".bloom");
+        new BreachCorpus(corpus, BreachCorpus.HashType.SHA1).close();
+        byte[] intact = Files.readAllBytes(bloom);
+
+        Files.write(bloom, Arrays.copyOf(intact, 20));
+        try (BreachCorpus breaches = new BreachCorpus(corpus, BreachCorpus.HashType.SHA1)) {
+            assertTrue(breaches.isBreached("dragon"));
+        }
+        assertEquals(intact.length, Files.size(bloom));
+
+        byte[] negative = intact.clone();
+        negative[16] = (byte) 0xff;
+        Files.write(bloom, negative);
+        try (BreachCorpus breaches = new BreachCorpus(corpus, BreachCorpus.HashType.SHA1)) {
+            assertTrue(breaches.isBreached("dragon"));
+        }
+        assertArrayEquals(intact, Files.readAllBytes(bloom));
+    }
+
+    @Test
+    void testFindBreachedNtlm() throws IOException {
+        writeCorpus(BreachCorpus.HashType.NTLM, BREACHED);
+        File file = new File();
+        Entry weak = new Entry("Bing", "a@outlook.com", new Password("qwerty"), "www.bing.ca", "none");
+        file.addEntry(new Entry("Adobe", "a@outlook.com", new Password("Tr0ub4dor&3x!"), "www.adobe.ca", "none"));
+        file.addEntry(weak);
+
+        try (BreachCorpus breaches = new BreachCorpus(corpus, BreachCorpus.HashType.NTLM)) {
+            assertEquals(List.of(weak), breaches.findBreached(file));
+        }
+    }
+
+    @Test
+    void testRejectsBadInput() throws IOException {
+        assertThrows(IOException.class, () -> BreachCorpus.convertHexList(
+                new BufferedReader(new StringReader("FFFF\n")), new ByteArrayOutputStream(),
+                BreachCorpus.HashType.NTLM));
+        String unsorted = "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF\n00000000000000000000000000000000\n";
+        assertThrows(IOException.class, () -> BreachCorpus.convertHexList(
+                new BufferedReader(new StringReader(unsorted)), new ByteArrayOutputStream(),
+                BreachCorpus.HashType.NTLM));
+        Files.write(corpus, new byte[30]);
+        assertThrows(IOException.class, () -> new BreachCorpus(corpus, BreachCorpus.HashType.SHA1));
+    }
+}
@@ -0,0 +1,112 @@
+package persistence;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EntryExporterTest extends JsonTest {
+    private File file;
+    private Path export;
+    private EntryExporter exporter;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+        file.addEntry(new Entry("Bank, \"main\"", "me", new Password("rescuer gulp"),
+                "www.bank.ca", "first line\nsecond line"));
+        export = Files.createTempFile("export", ".csv");
+        exporter = new EntryExporter();
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        Files.deleteIfExists(export);
+    }
+
+    @Test
+    void testQuote() {
+        assertEquals("plain", EntryExporter.quote("plain"));
+        assertEquals("\"a,b\"", EntryExporter.quote("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", EntryExporter.quote("say \"hi\""));
+        assertEquals("\" padded\"", EntryExporter.quote(" padded"));
+        assertEquals("", EntryExporter.quote(null));
+    }
+
+    @Test
+    void testExportCsvRoundTrip() throws IOException {
+        assertEquals(2, exporter.exportCsv(file, export));
+
+        List<String> lines = Files.readAllLines(export, StandardCharsets.UTF_8);
+        assertEquals(EntryExporter.CSV_HEADER, lines.get(0));
+        assertEquals("Google,www.google.com,union@gmail.com,stowing-attest,none", lines.get(1));
+        File imported = new File();
+        assertEquals(2, new EntryImporter().importFrom(export, imported));
+        assertEquals(file.snapshot(), imported.snapshot());
+    }
+
+    @Test
+    void testExportCsvFromVault() throws IOException, GeneralSecurityException {
+        Path vault = Files.createTempFile("vault", ".json");
+        JsonWriter writer = new JsonWriter(vault.toString());
+        writer.open();
+        writer.write(file, "masterPassword");
+        writer.close();
+
+        JsonReader reader = new JsonReader(vault.toString());
+        assertThrows(GeneralSecurityException.class, () -> exporter.exportCsv(reader, "wrong", export));
+        assertEquals(2, exporter.exportCsv(reader, "masterPassword", export));
+        File imported = new File();
+        new EntryImporter().importFrom(export, imported);
+        assertEquals(file.snapshot(), imported.snapshot());
+        Files.delete(vault);
+    }
+
+    @Test
+    void testExportEncrypted() throws IOException, GeneralSecurityException {
+        Path encrypted = Files.createTempFile("export", ".json");
+        assertEquals(2, exporter.exportEncrypted(file, "exportPassword", encrypted));
+
+        File loaded = new JsonReader(encrypted.toString()).read("exportPassword", "STORE");
+        Entry bank = loaded.getEntryAtIndex(1);
+        checkEntry("Bank, \"main\"", "me", new Password("rescuer gulp"), "www.bank.ca",
+                "first line\nsecond line", bank);
+        Files.delete(encrypted);
+    }
+
+    @Test
+    void testExportWithMasterPasswordHasHeaderOfItsOwn() throws IOException, GeneralSecurityException {
+        Path vault = Files.createTempFile("vault", ".json");
+        JsonWriter writer = new JsonWriter(vault.toString());
+        writer.open();
+        writer.write(file, "masterPassword");
+        writer.close();
+        String recoveryKey = new VaultRekeyer(vault.toString()).addRecoveryKey("masterPassword");
+        File loaded = new JsonReader(vault.toString()).read("masterPassword", "STORE");
+        Path encrypted = Files.createTempFile("export", ".json");
+
+        exporter.exportEncrypted(loaded, "masterPassword", encrypted);
+
+        assertNotEquals(Files.readAllLines(vault).get(0), Files.readAllLines(encrypted).get(0));
+        assertThrows(GeneralSecurityException.class,
+                () -> new JsonReader(encrypted.toString()).read(recoveryKey, "STORE"));
+        assertEquals(2, new JsonReader(encrypted.toString()).read("masterPassword", "STORE").getSizeOfEntries());
+        Files.delete(encrypted);
+        Files.delete(vault);
+    }
+}
@@ -0,0 +1,91 @@
+package persistence;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.event.Event;
+import model.event.EventLog;
+import model.event.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntryImporterTest {
+    private File file;
+    private EntryImporter importer;
+
+    @BeforeEach
+    void runBefore() {
+        file = new File();
+        importer = new EntryImporter(2, 2);
+    }
+
+    @Test
+    void testImportCsv() throws IOException {
+        String csv = "\uFEFFname,url,username,password,extra,grouping\r\n"
+                + "Bank,https://bank.ca,me,\"pa,ss\"\"word\",\"line one\nline two\",Finance\r\n"
+                + ",https://mail.com,me@mail.com,hunter22,,\r\n"
+                + "No password,https://nothing.org,me,,,\r\n";
+
+        assertEquals(2, importer.importFrom(new StringReader(csv), EntryImporter.Format.CSV, file));
+        assertEquals(1, importer.getSkippedCount());
+        Entry bank = file.getEntryAtIndex(0);
+        assertEquals("Bank", bank.getName());
+        assertEquals("me", bank.getUsername());
+        assertEquals("pa,ss\"word", bank.getPasswordText());
+        assertEquals("https://bank.ca", bank.getUrl());
+        assertEquals("line one\nline two", bank.getNotes());
+        assertEquals("https://mail.com", file.getEntryAtIndex(1).getName());
+        assertEquals(1, file.getModificationCount());
+    }
+
+    @Test
+    void testImportJsonItemsKeepsOrder() throws IOException {
+        StringBuilder json = new StringBuilder("{\"encrypted\": false, \"folders\": [{\"id\": 1}], \"items\": [");
+        for (int i = 0; i < 7; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\": \"Site ").append(i)
+                    .append("\", \"notes\": null, \"login\": {\"username\": \"user\", \"password\": \"secret-")
+                    .append(i).append("\", \"uris\": [{\"uri\": \"https://site").append(i).append(".com\"}]}}");
+        }
+        json.append("]}");
+
+        assertEquals(7, importer.importFrom(new StringReader(json.toString()), EntryImporter.Format.JSON, file));
+        for (int i = 0; i < 7; i++) {
+            Entry e = file.getEntryAtIndex(i);
+            assertEquals("Site " + i, e.getName());
+            assertEquals("secret-" + i, e.getPasswordText());
+            assertEquals("https://site" + i + ".com", e.getUrl());
+            assertEquals("", e.getNotes());
+        }
+        assertEquals(4, file.getModificationCount());
+    }
+
+    @Test
+    void testImportJsonArrayFromPath() throws IOException {
+        Path export = Files.createTempFile("export", ".json");
+        Files.write(export, ("[{\"title\": \"Forum\", \"username\": \"me\", \"password\": \"abc123\","
+                + " \"url\": \"https://forum.net\"}, 42]").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, importer.importFrom(export, file));
+        assertEquals("Forum", file.getEntryAtIndex(0).getName());
+        List<Event> imports = EventLog.getInstance().getEventsOfType(EventType.ENTRIES_IMPORTED);
+        assertTrue(imports.get(imports.size() - 1).getDescription().startsWith("Imported 1 entries from export"));
+        Files.delete(export);
+    }
+
+    @Test
+    void testImportJsonWithoutItems() {
+        assertThrows(IOException.class, () -> importer.importFrom(new StringReader("{\"folders\": []}"),
+                EntryImporter.Format.JSON, file));
+        assertEquals(0, file.getSizeOfEntries());
+    }
+}
@@ -0,0 +1,55 @@
+package persistence;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderEventsTest {
+
+    @Test
+    void testVaultLoadEvents() throws IOException, GeneralSecurityException {
+        Path dump = Files.createTempFile("safepass", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("safepass.VaultLoad");
+            recording.enable("safepass.VaultPhase");
+            recording.enable("safepass.KeyDerivation");
+            recording.start();
+            new JsonReader("./data/test/testReaderGeneralFile.json").read("passwordGeneralFile", "STORE");
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        RecordedEvent load = only(events, "safepass.VaultLoad");
+        assertEquals(2, load.getInt("entryCount"));
+        assertTrue(load.getLong("byteSize") > 0);
+        List<String> phases = events.stream()
+                .filter(e -> e.getEventType().getName().equals("safepass.VaultPhase"))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .map(e -> e.getString("phase"))
+                .collect(Collectors.toList());
+        assertEquals(List.of("read", "parse", "decrypt"), phases);
+        assertEquals("SHA-256", only(events, "safepass.KeyDerivation").getString("algorithm"));
+        Files.deleteIfExists(dump);
+    }
+
+    private RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size());
+        return matching.get(0);
+    }
+}
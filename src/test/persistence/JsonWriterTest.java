@@ -0,0 +1,227 @@
+package persistence;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import model.entries.StrengthEstimator;
+import model.entries.StrengthSummary;
+import model.metrics.Metrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class JsonWriterTest extends JsonTest {
+    private Path store;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        store = Files.createTempFile("writer", ".json");
+    }
+
+    @Test
+    void testWriterEmptyFile() throws IOException, GeneralSecurityException {
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(new File(), "passwordEmptyFile");
+        writer.close();
+
+        File file = new JsonReader(store.toString()).read("passwordEmptyFile", "STORE");
+        assertEquals(0, file.getSizeOfEntries());
+    }
+
+    @Test
+    void testWriterGeneralFileWithProgress() throws IOException, GeneralSecurityException {
+        File file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+        file.addEntry(new Entry("Bing", "random@outlook.com", new Password("rescuer-gulp"),
+                "www.bing.ca", "none1"));
+        List<Integer> progress = new ArrayList<>();
+
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, "passwordGeneralFile", (processed, total) -> progress.add(processed));
+        writer.close();
+
+        File loaded = new JsonReader(store.toString()).read("passwordGeneralFile", "STORE");
+        assertEquals(List.of(1, 2), progress);
+        assertEquals(2, loaded.getSizeOfEntries());
+        checkEntry("Google", "union@gmail.com", new Password("stowing-attest"), "www.google.com", "none",
+                loaded.getEntryAtIndex(0));
+        checkEntry("Bing", "random@outlook.com", new Password("rescuer-gulp"), "www.bing.ca", "none1",
+                loaded.getEntryAtIndex(1));
+    }
+
+    @Test
+    void testLoadReusesStrengthSummaries() throws IOException, GeneralSecurityException {
+        File file = new File();
+        Password password = new Password("rescuer-gulp");
+        file.addEntry(new Entry("Bing", "random@outlook.com", password, "www.bing.ca", "none1"));
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, "passwordGeneralFile");
+        writer.close();
+
+        Metrics.setEnabled(true);
+        Metrics.reset();
+        File loaded = new JsonReader(store.toString()).read("passwordGeneralFile", "STORE");
+        Password loadedPassword = loaded.getEntryAtIndex(0).getPassword();
+        assertEquals(password.findScore(), loadedPassword.findScore());
+        assertEquals(password.getEntropy(), loadedPassword.getEntropy());
+        assertEquals(password.getGuesses(), loadedPassword.getGuesses());
+        assertEquals(0, Metrics.PASSWORD_SCORE.getCount());
+        Metrics.reset();
+    }
+
+    @Test
+    void testStaleStrengthSummaryIsIgnored() {
+        String version = StrengthEstimator.getInstance().getVersion();
+        StrengthSummary stale = new StrengthSummary("old-password", List.of(), version, 4, 99, BigDecimal.TEN, false);
+        Password password = new Password("password", StrengthSummary.parse(stale.encode()));
+        assertEquals(0, password.findScore());
+        StrengthSummary otherEstimator = new StrengthSummary("password", List.of(), "nbvcxz-1.5.1/1", 4, 99,
+                BigDecimal.TEN, false);
+        assertNotEquals(99, new Password("password", otherEstimator).getEntropy());
+    }
+
+    @Test
+    void testWrongPasswordRejectedByHeader() throws IOException, GeneralSecurityException {
+        File file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, "rightPassword");
+        writer.close();
+        assertTrue(Files.readAllLines(store).get(0).startsWith("{\"format\":\"safepass-vault\""));
+
+        Metrics.setEnabled(true);
+        Metrics.reset();
+        try {
+            new JsonReader(store.toString()).read("wrongPassword", "STORE");
+            fail("GeneralSecurityException expected");
+        } catch (GeneralSecurityException e) {
+            assertEquals(0, Metrics.JSON_PARSE.getCount());
+            assertEquals(0, Metrics.FILE_READ.getCount());
+            assertEquals(1, Metrics.FAILED_AUTHENTICATIONS.getValue());
+        }
+        assertEquals(1, new JsonReader(store.toString()).read("rightPassword", "STORE").getSizeOfEntries());
+        Metrics.reset();
+    }
+
+    @Test
+    void testWrongPasswordDoesNotOverwriteVault() throws IOException, GeneralSecurityException {
+        File file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, "rightPassword");
+        writer.close();
+        String recoveryKey = new VaultRekeyer(store.toString()).addRecoveryKey("rightPassword");
+        byte[] before = Files.readAllBytes(store);
+
+        JsonWriter wrong = new JsonWriter(store.toString());
+        wrong.open();
+        try {
+            assertThrows(IOException.class, () -> wrong.write(new File(), "wrongPassword"));
+        } finally {
+            wrong.close();
+        }
+        assertArrayEquals(before, Files.readAllBytes(store));
+        assertEquals(1, new JsonReader(store.toString()).read(recoveryKey, "STORE").getSizeOfEntries());
+        assertEquals(List.of(store), siblings());
+    }
+
+    @Test
+    void testSaveReplacesVaultWithoutLeavingTemporaryFile() throws IOException, GeneralSecurityException {
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(new File(), "rightPassword");
+        writer.close();
+        byte[] before = Files.readAllBytes(store);
+        writer = new JsonWriter(store.toString());
+        writer.open();
+        assertArrayEquals(before, Files.readAllBytes(store));
+        writer.write(new File(), "rightPassword");
+        writer.close();
+
+        assertEquals(0, new JsonReader(store.toString()).read("rightPassword", "STORE").getSizeOfEntries());
+        assertEquals(List.of(store), siblings());
+    }
+
+    private List<Path> siblings() throws IOException {
+        try (Stream<Path> files = Files.list(store.getParent())) {
+            return files.filter(path -> path.getFileName().toString().startsWith(store.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testWrongPasswordLeavesTargetUntouched() throws IOException {
+        File file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, "rightPassword");
+        writer.close();
+
+        try {
+            new JsonReader(store.toString()).readInto("wrongPassword", "STORE", file, (p, t) -> { });
+            fail("GeneralSecurityException expected");
+        } catch (GeneralSecurityException e) {
+            assertEquals(1, file.getSizeOfEntries());
+            assertEquals("Google", file.getEntryAtIndex(0).getName());
+        }
+    }
+
+    @Test
+    void testDamagedEntryLeavesTargetUntouched() throws IOException {
+        File file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+        file.addEntry(new Entry("Bing", "random@outlook.com", new Password("rescuer-gulp"),
+                "www.bing.ca", "none1"));
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, "rightPassword");
+        writer.close();
+        List<String> lines = Files.readAllLines(store);
+        int last = lines.size() - 1;
+        while (!lines.get(last).contains("\"name\"")) {
+            last--;
+        }
+        String line = lines.get(last);
+        int value = line.indexOf(": \"") + 3;
+        char damaged = line.charAt(value) == 'A' ? 'B' : 'A';
+        lines.set(last, line.substring(0, value) + damaged + line.substring(value + 1));
+        Files.write(store, lines);
+
+        File target = new File();
+        target.addEntry(new Entry("Yahoo", "union@yahoo.com", new Password("pliers-minnow"), "www.yahoo.com", ""));
+        try {
+            new JsonReader(store.toString()).readInto("rightPassword", "STORE", target, (p, t) -> { });
+            fail("GeneralSecurityException expected");
+        } catch (GeneralSecurityException e) {
+            assertEquals(1, target.getSizeOfEntries());
+            assertEquals("Yahoo", target.getEntryAtIndex(0).getName());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package persistence;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VaultRekeyerTest extends JsonTest {
+    private Path store;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        store = Files.createTempFile("rekeyer", ".json");
+    }
+
+    private void save(String password) throws IOException {
+        File file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+        file.addEntry(new Entry("Bing", "random@outlook.com", new Password("rescuer-gulp"),
+                "www.bing.ca", "none1"));
+        JsonWriter writer = new JsonWriter(store.toString());
+        writer.open();
+        writer.write(file, password);
+        writer.close();
+    }
+
+    private byte[] entryBytes() throws IOException {
+        byte[] bytes = Files.readAllBytes(store);
+        int start = 0;
+        while (bytes[start] != '\n') {
+            start++;
+        }
+        return Arrays.copyOfRange(bytes, start + 1, bytes.length);
+    }
+
+    private List<String> labels() throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(store, StandardCharsets.UTF_8)) {
+            return VaultHeader.read(in).getLabels();
+        }
+    }
+
+    @Test
+    void testChangePasswordRewritesOnlyHeader() throws IOException, GeneralSecurityException {
+        save("oldPassword");
+        byte[] entries = entryBytes();
+
+        new VaultRekeyer(store.toString()).changePassword("oldPassword", "newPassword");
+
+        assertArrayEquals(entries, entryBytes());
+        assertThrows(GeneralSecurityException.class,
+                () -> new JsonReader(store.toString()).read("oldPassword", "STORE"));
+        File loaded = new JsonReader(store.toString()).read("newPassword", "STORE");
+        assertEquals(2, loaded.getSizeOfEntries());
+        checkEntry("Google", "union@gmail.com", new Password("stowing-attest"), "www.google.com", "none",
+                loaded.getEntryAtIndex(0));
+    }
+
+    @Test
+    void testWrongPasswordLeavesVaultUnchanged() throws IOException {
+        save("rightPassword");
+        byte[] before = Files.readAllBytes(store);
+
+        assertThrows(GeneralSecurityException.class,
+                () -> new VaultRekeyer(store.toString()).changePassword("wrongPassword", "newPassword"));
+        assertArrayEquals(before, Files.readAllBytes(store));
+    }
+
+    @Test
+    void testRecoveryKeyUnlocksAndResetsPassword() throws IOException, GeneralSecurityException {
+        save("forgottenPassword");
+        String recoveryKey = new VaultRekeyer(store.toString()).addRecoveryKey("forgottenPassword");
+        assertEquals(VaultRekeyer.RECOVERY_WORDS, recoveryKey.split("-").length);
+        assertEquals(List.of(VaultHeader.PASSWORD_LABEL, VaultRekeyer.RECOVERY_LABEL), labels());
+        assertEquals(2, new JsonReader(store.toString()).read(recoveryKey, "STORE").getSizeOfEntries());
+
+        new VaultRekeyer(store.toString()).changePassword(recoveryKey, "newPassword");
+        save("newPassword");
+
+        assertEquals(List.of(VaultHeader.PASSWORD_LABEL, VaultRekeyer.RECOVERY_LABEL), labels());
+        assertEquals(2, new JsonReader(store.toString()).read("newPassword", "STORE").getSizeOfEntries());
+        assertEquals(2, new JsonReader(store.toString()).read(recoveryKey, "STORE").getSizeOfEntries());
+    }
+
+    @Test
+    void testVaultWithoutHeaderIsUpgraded() throws IOException, GeneralSecurityException {
+        Files.copy(Paths.get("./data/test/testReaderGeneralFile.json"), store, StandardCopyOption.REPLACE_EXISTING);
+
+        new VaultRekeyer(store.toString()).changePassword("passwordGeneralFile", "newPassword");
+
+        assertTrue(Files.readAllLines(store).get(0).contains("\"version\":" + VaultHeader.VERSION));
+        assertEquals(2, new JsonReader(store.toString()).read("newPassword", "STORE").getSizeOfEntries());
+    }
+}
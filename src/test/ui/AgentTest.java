@@ -0,0 +1,156 @@
+package ui;
+
+import model.entries.Entry;
+import model.entries.File;
+import model.entries.Password;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AgentTest {
+    private Path tokenFile;
+    private File file;
+    private Agent agent;
+    private String token;
+    private final List<Socket> clients = new ArrayList<>();
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        tokenFile = Files.createTempDirectory("agent").resolve("agent.token");
+        file = new File();
+        file.addEntry(new Entry("Google", "union@gmail.com", new Password("stowing-attest"),
+                "www.google.com", "none"));
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        for (Socket client : clients) {
+            client.close();
+        }
+        if (agent != null) {
+            agent.stop();
+        }
+    }
+
+    private void startAgent(long idleMillis) throws IOException {
+        agent = new Agent(file, tokenFile, idleMillis);
+        agent.start();
+        Thread server = new Thread(agent::serve);
+        server.setDaemon(true);
+        server.start();
+        token = Files.readString(tokenFile).trim().split(" ")[1];
+    }
+
+    private Socket connect() throws IOException {
+        Socket client = new Socket(InetAddress.getLoopbackAddress(), agent.getPort());
+        client.setSoTimeout(5000);
+        clients.add(client);
+        return client;
+    }
+
+    private static PrintWriter writer(Socket client) throws IOException {
+        return new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8), true);
+    }
+
+    private static BufferedReader reader(Socket client) throws IOException {
+        return new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testAnswersRequestsWithToken() throws IOException {
+        startAgent(60_000);
+        Socket client = connect();
+        writer(client).println(token + " get --name google");
+        BufferedReader in = reader(client);
+
+        assertEquals("OK 1", in.readLine());
+        assertEquals("Google\tunion@gmail.com\tstowing-attest\twww.google.com", in.readLine());
+    }
+
+    @Test
+    void testRejectsRequestWithoutToken() throws IOException {
+        startAgent(60_000);
+        Socket client = connect();
+        writer(client).println("0123456789abcdef list");
+        BufferedReader in = reader(client);
+
+        assertEquals("ERR not authorized", in.readLine());
+        assertNull(in.readLine());
+    }
+
+    @Test
+    void testUnauthorizedRequestsDoNotKeepAgentAlive() throws IOException, InterruptedException {
+        startAgent(300);
+        long deadline = System.currentTimeMillis() + 3000;
+        while (Files.exists(tokenFile) && System.currentTimeMillis() < deadline) {
+            try {
+                writer(connect()).println("junk list");
+            } catch (ConnectException e) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+
+        assertFalse(Files.exists(tokenFile));
+        assertEquals(0, file.getSizeOfEntries());
+        assertThrows(ConnectException.class, this::connect);
+    }
+
+    @Test
+    void testStopAfterStopIsAnswered() throws IOException {
+        startAgent(60_000);
+        Socket client = connect();
+        PrintWriter out = writer(client);
+        BufferedReader in = reader(client);
+        out.println(token + " list");
+        assertEquals("OK 1", in.readLine());
+        in.readLine();
+        agent.stop();
+
+        out.println(token + " stop");
+        assertEquals("OK 0", in.readLine());
+    }
+
+    @Test
+    void testTokenFileIsOwnerOnly() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        startAgent(60_000);
+
+        assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(tokenFile));
+    }
+
+    @Test
+    void testRefusesClientsBeyondLimit() throws IOException {
+        startAgent(60_000);
+        for (int i = 0; i < Agent.MAX_CONNECTIONS; i++) {
+            Socket client = connect();
+            writer(client).println(token + " list");
+            assertEquals("OK 1", reader(client).readLine());
+        }
+        Socket extra = connect();
+
+        assertEquals("ERR busy", reader(extra).readLine());
+    }
+}
@@ -0,0 +1,145 @@
+package ui;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchModeTest {
+    private Path store;
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        store = Files.createTempDirectory("batch").resolve("vault.json");
+    }
+
+    private BatchMode session(String password) {
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+        BatchMode batch = new BatchMode(store.toString(), new PrintStream(out, true), new PrintStream(err, true));
+        assertTrue(batch.unlock(password));
+        return batch;
+    }
+
+    private void run(BatchMode batch, String line) {
+        batch.execute(BatchMode.tokenize(line));
+    }
+
+    private String output() {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testTokenizeKeepsQuotedText() {
+        assertEquals(List.of("add", "--name", "My Bank", "--notes", ""),
+                BatchMode.tokenize("add  --name \"My Bank\" --notes \"\""));
+    }
+
+    @Test
+    void testParseOptions() {
+        assertEquals(Map.of("name", "Google", "url", "google.com"),
+                BatchMode.parseOptions(List.of("--name", "Google", "--url", "google.com")));
+        assertThrows(IllegalArgumentException.class, () -> BatchMode.parseOptions(List.of("--name")));
+        assertThrows(IllegalArgumentException.class, () -> BatchMode.parseOptions(List.of("name", "Google")));
+    }
+
+    @Test
+    void testAddGetListRemoveAndSave() {
+        BatchMode batch = session("batchPassword");
+        run(batch, "add --name Google --username union --password stowing-attest --url google.com");
+        run(batch, "add --name Bing --generate 16 --min-digits 3 --exclude-ambiguous true");
+        run(batch, "get --name google");
+        run(batch, "list");
+        assertEquals(0, batch.getFailureCount());
+        assertTrue(output().startsWith("Google\tunion\tstowing-attest\tgoogle.com\n"));
+        assertTrue(output().contains("\nBing\t\t\n"));
+        assertTrue(batch.finish());
+
+        batch = session("batchPassword");
+        run(batch, "remove --name Bing");
+        run(batch, "list");
+        assertEquals("Google\tunion\tgoogle.com\n", output());
+        assertTrue(batch.finish());
+        batch = session("batchPassword");
+        run(batch, "get --name Bing");
+        assertEquals(1, batch.getFailureCount());
+    }
+
+    @Test
+    void testFailedCommandsAreReportedAndCounted() {
+        BatchMode batch = session("batchPassword");
+        run(batch, "frobnicate");
+        run(batch, "get --name Missing");
+        run(batch, "add --name Google");
+        run(batch, "add --name Google --password a --name");
+        run(batch, "add --name Bing --generate 2 --min-digits 3");
+
+        assertEquals(5, batch.getFailureCount());
+        String errors = err.toString(StandardCharsets.UTF_8);
+        assertTrue(errors.contains("error: frobnicate: Unknown command frobnicate"));
+        assertTrue(errors.contains("error: get --name Missing: No entry named Missing"));
+        assertTrue(errors.contains("Expected --password, --generate or --passphrase"));
+        assertTrue(batch.finish());
+        assertFalse(Files.exists(store));
+    }
+
+    @Test
+    void testWrongPasswordFailsToUnlock() {
+        BatchMode batch = session("batchPassword");
+        run(batch, "add --name Google --password stowing-attest");
+        assertTrue(batch.finish());
+
+        BatchMode wrong = new BatchMode(store.toString(), new PrintStream(out), new PrintStream(err, true));
+        assertFalse(wrong.unlock("wrongPassword"));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Bad password!"));
+    }
+
+    @Test
+    void testImportThatImportsItselfFails() throws IOException {
+        Path script = store.resolveSibling("script.txt");
+        Files.write(script, List.of("# adds one entry", "add --name Google --password stowing-attest",
+                "import --file " + script));
+        BatchMode batch = session("batchPassword");
+        run(batch, "import --file " + script);
+
+        assertEquals(1, batch.getFailureCount());
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("is already being imported"));
+        run(batch, "get --name Google");
+        assertTrue(output().startsWith("Google"));
+    }
+
+    @Test
+    void testChangePasswordAndRecoveryKey() {
+        BatchMode batch = session("oldPassword");
+        run(batch, "add --name Google --password stowing-attest");
+        assertTrue(batch.finish());
+
+        batch = session("oldPassword");
+        run(batch, "change-password --new newPassword");
+        run(batch, "add-recovery-key");
+        assertEquals(0, batch.getFailureCount());
+        String recoveryKey = output().split("\n")[1];
+        assertTrue(batch.finish());
+
+        BatchMode old = new BatchMode(store.toString(), new PrintStream(out), new PrintStream(err));
+        assertFalse(old.unlock("oldPassword"));
+        run(session("newPassword"), "get --name Google");
+        assertTrue(output().startsWith("Google"));
+        run(session(recoveryKey), "get --name Google");
+        assertTrue(output().startsWith("Google"));
+    }
+}